@@ -0,0 +1,55 @@
+package Benchmarks;
+
+import SimpleCharts.Chart.SimpleChart;
+import SimpleCharts.ChartImageRenderer;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Lays out and paints a whole chart, as a <code>ChartPanel</code> does after
+ * a resize: title, legend, both axes and the data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChartRenderBenchmark
+{
+    @Param({"1000", "1000000"})
+    public int points;
+
+    @Param({"640x400", "1920x1080"})
+    public String size;
+
+    private SimpleChart chart;
+    private ChartImageRenderer renderer;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    @Setup
+    public void setUp()
+    {
+        final int separator = size.indexOf('x');
+        final int width = Integer.parseInt(size.substring(0, separator));
+        final int height = Integer.parseInt(size.substring(separator+1));
+        chart = Fixtures.createChart(Fixtures.createColumnarModel(points));
+        renderer = new ChartImageRenderer();
+        image = Fixtures.createImage(width, height);
+        g = Fixtures.createGraphics(image);
+    }
+    @TearDown
+    public void tearDown()
+    {
+        g.dispose();
+    }
+    @Benchmark
+    public BufferedImage layoutAndPaint()
+    {
+        renderer.render(chart, g, image.getWidth(), image.getHeight());
+        return image;
+    }
+}
@@ -0,0 +1,76 @@
+package Benchmarks;
+
+import DataModel.ColumnarXYDataModel;
+import DataModel.ConcurrentXYDataModel;
+import DataModel.SimpleXYDataModel;
+import DataModel.XYData;
+import SimpleCharts.Axis.Range;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Builds data models and computes their domain and range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataModelBenchmark
+{
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    /** The number of points appended per batch by the append benchmarks. */
+    private static final int BATCH = 1000;
+
+    private List<XYData> list;
+    private double[] xs, ys;
+
+    @Setup
+    public void setUp()
+    {
+        list = Fixtures.createPoints(points);
+        xs = new double[points];
+        ys = new double[points];
+        Fixtures.fill(xs, ys, 42);
+    }
+    /**
+     * Wraps a list of points, which scans it to calculate the domain and range.
+     */
+    @Benchmark
+    public SimpleXYDataModel simpleConstruction()
+    {
+        return new SimpleXYDataModel(list);
+    }
+    @Benchmark
+    public Range simpleDomainAndRange()
+    {
+        final SimpleXYDataModel model = new SimpleXYDataModel(list);
+        model.getDataDomain();
+        return model.getDataRange();
+    }
+    @Benchmark
+    public ColumnarXYDataModel columnarConstruction()
+    {
+        return new ColumnarXYDataModel(xs, ys);
+    }
+    @Benchmark
+    public ColumnarXYDataModel columnarAppend()
+    {
+        final ColumnarXYDataModel model = new ColumnarXYDataModel();
+        for(int from=0; from<points; from+=BATCH)
+            model.appendBatch(xs, ys, from, Math.min(from + BATCH, points));
+        return model;
+    }
+    @Benchmark
+    public ConcurrentXYDataModel concurrentAppend()
+    {
+        final ConcurrentXYDataModel model = new ConcurrentXYDataModel();
+        for(int from=0; from<points; from+=BATCH)
+            model.appendBatch(xs, ys, from, Math.min(from + BATCH, points));
+        return model;
+    }
+}
@@ -0,0 +1,55 @@
+package Benchmarks;
+
+import SimpleCharts.Axis.DateTickFactory;
+import SimpleCharts.Axis.Range;
+import SimpleCharts.Axis.TickSet;
+import SimpleCharts.Axis.ValueTick;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Generates the ticks and labels of a date axis for ranges of different
+ * spans. Every invocation moves the range by a fraction of its span, so the
+ * labels differ from one call to the next as they do while panning.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTickFactoryBenchmark
+{
+    /** The span of the range in milliseconds: a minute, a day, a month and ten years. */
+    @Param({"60000", "86400000", "2592000000", "315360000000"})
+    public double span;
+
+    private static final int MAX_LABELS = 10;
+
+    private DateTickFactory factory;
+    private int step;
+
+    @Setup
+    public void setUp()
+    {
+        factory = new DateTickFactory();
+        step = 0;
+    }
+    private Range nextRange(double lower, double extent)
+    {
+        step = (step + 1) & 1023;
+        final double shift = extent*step/1024.0;
+        return new Range(lower + shift, lower + shift + extent);
+    }
+    @Benchmark
+    public List<ValueTick> generateLabels()
+    {
+        return factory.generateLabels(nextRange(Fixtures.START_TIME, span), MAX_LABELS, 0);
+    }
+    @Benchmark
+    public TickSet createTicks()
+    {
+        return factory.createTicks(nextRange(Fixtures.START_TIME, span), MAX_LABELS, 0);
+    }
+}
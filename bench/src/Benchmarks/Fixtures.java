@@ -0,0 +1,80 @@
+package Benchmarks;
+
+import DataModel.ColumnarXYDataModel;
+import DataModel.SimpleXYData;
+import DataModel.XYData;
+import SimpleCharts.Axis.DateAxis;
+import SimpleCharts.Chart.ChartComponent;
+import SimpleCharts.Chart.SimpleChart;
+import SimpleCharts.ChartImageRenderer;
+import SimpleCharts.Plot.LinePlot;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic data and charts shared by the benchmarks.
+ */
+final class Fixtures
+{
+    /** The x value of the first point, 2020-09-13 in milliseconds since the epoch. */
+    static final double START_TIME = 1.6e12;
+    /** The x distance of consecutive points, one minute. */
+    static final double STEP = 60000;
+
+    private Fixtures()
+    {
+    }
+    /**
+     * Fills two columns with a noisy sine wave sampled once a minute.
+     */
+    static void fill(double[] xs, double[] ys, long seed)
+    {
+        final Random random = new Random(seed);
+        for(int i=0; i<xs.length; ++i)
+        {
+            xs[i] = START_TIME + i*STEP;
+            ys[i] = 100*Math.sin(i/3000.0) + random.nextGaussian();
+        }
+    }
+    static ColumnarXYDataModel createColumnarModel(int points)
+    {
+        final double[] xs = new double[points];
+        final double[] ys = new double[points];
+        fill(xs, ys, 42);
+        return new ColumnarXYDataModel(xs, ys);
+    }
+    static List<XYData> createPoints(int points)
+    {
+        final double[] xs = new double[points];
+        final double[] ys = new double[points];
+        fill(xs, ys, 42);
+        final List<XYData> list = new ArrayList<XYData>(points);
+        for(int i=0; i<points; ++i)
+            list.add(new SimpleXYData(xs[i], ys[i]));
+        return list;
+    }
+    /**
+     * Creates a titled chart with a date domain axis showing all points of
+     * the model.
+     */
+    static SimpleChart createChart(ColumnarXYDataModel data)
+    {
+        final LinePlot plot = new LinePlot("series");
+        plot.setDomainAxis(new DateAxis(ChartComponent.BOTTOM));
+        plot.setDataModel(data);
+        return new SimpleChart("Benchmark", plot);
+    }
+    static BufferedImage createImage(int width, int height)
+    {
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+    static Graphics2D createGraphics(BufferedImage image)
+    {
+        final Graphics2D g = image.createGraphics();
+        g.setFont(ChartImageRenderer.DEFAULT_FONT);
+        return g;
+    }
+}
@@ -0,0 +1,77 @@
+package Benchmarks;
+
+import DataModel.ColumnarXYDataModel;
+import SimpleCharts.Chart.PaintLayer;
+import SimpleCharts.Chart.SimpleChart;
+import SimpleCharts.ChartImageRenderer;
+import SimpleCharts.Plot.LTTBDownsampler;
+import SimpleCharts.Plot.LinePlot;
+import SimpleCharts.Plot.MinMaxDownsampler;
+import SimpleCharts.Plot.PyramidDownsampler;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Paints the data layer of a laid out <code>LinePlot</code> onto an
+ * off-screen image, i.e. the work done for every frame of a live chart whose
+ * layout did not change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LinePlotPaintBenchmark
+{
+    @Param({"1000", "1000000", "10000000"})
+    public int points;
+
+    @Param({"minmax", "pyramid", "lttb", "none"})
+    public String downsampler;
+
+    @Param({"false", "true"})
+    public boolean zoomed;
+
+    private SimpleChart chart;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    @Setup
+    public void setUp()
+    {
+        final ColumnarXYDataModel data = Fixtures.createColumnarModel(points);
+        chart = Fixtures.createChart(data);
+        final LinePlot plot = (LinePlot)chart.getPlot();
+        if("minmax".equals(downsampler))
+            plot.setDownsampler(new MinMaxDownsampler());
+        else if("pyramid".equals(downsampler))
+            plot.setDownsampler(new PyramidDownsampler());
+        else if("lttb".equals(downsampler))
+            plot.setDownsampler(new LTTBDownsampler());
+        else
+            plot.setDownsampler(null);
+        if(zoomed)
+            plot.getDomainAxis().zoomRange(0.45, 0.55);
+        image = Fixtures.createImage(800, 600);
+        g = Fixtures.createGraphics(image);
+        final ChartImageRenderer renderer = new ChartImageRenderer();
+        chart.setChartHost(renderer);
+        chart.setBounds(0, 0, image.getWidth(), image.getHeight());
+        chart.doLayout();
+        PaintLayer.setActiveLayers(g, PaintLayer.DATA);
+    }
+    @TearDown
+    public void tearDown()
+    {
+        g.dispose();
+    }
+    @Benchmark
+    public BufferedImage paintData()
+    {
+        chart.paint(g);
+        return image;
+    }
+}
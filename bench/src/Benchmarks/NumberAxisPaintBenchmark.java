@@ -0,0 +1,68 @@
+package Benchmarks;
+
+import SimpleCharts.Axis.NumberAxis;
+import SimpleCharts.Chart.SimpleChart;
+import SimpleCharts.ChartImageRenderer;
+import SimpleCharts.Plot.LinePlot;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Paints a vertical <code>NumberAxis</code>, including fitting its labels to
+ * the axis length. <code>panning</code> moves the range on every call, so the
+ * labels must be fitted and measured again; <code>repaint</code> paints the
+ * same range, which is answered from the fitted tick cache of the axis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NumberAxisPaintBenchmark
+{
+    /** The extent of the axis range. */
+    @Param({"1e-3", "1", "1e6"})
+    public double extent;
+
+    private NumberAxis axis;
+    private BufferedImage image;
+    private Graphics2D g;
+    private int step;
+
+    @Setup
+    public void setUp()
+    {
+        final SimpleChart chart = Fixtures.createChart(Fixtures.createColumnarModel(1000));
+        axis = (NumberAxis)((LinePlot)chart.getPlot()).getRangeAxis();
+        image = Fixtures.createImage(800, 600);
+        g = Fixtures.createGraphics(image);
+        chart.setChartHost(new ChartImageRenderer());
+        chart.setBounds(0, 0, image.getWidth(), image.getHeight());
+        chart.doLayout();
+        axis.setRange(0, extent);
+        step = 0;
+    }
+    @TearDown
+    public void tearDown()
+    {
+        g.dispose();
+    }
+    @Benchmark
+    public BufferedImage repaint()
+    {
+        axis.paintComponent(g);
+        return image;
+    }
+    @Benchmark
+    public BufferedImage panning()
+    {
+        step = (step + 1) & 1023;
+        final double lower = extent*step/1024.0;
+        axis.setRange(lower, lower + extent);
+        axis.paintComponent(g);
+        return image;
+    }
+}
@@ -0,0 +1,55 @@
+package Benchmarks;
+
+import SimpleCharts.Axis.NumberTickFactory;
+import SimpleCharts.Axis.Range;
+import SimpleCharts.Axis.TickSet;
+import SimpleCharts.Axis.ValueTick;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Generates the ticks and labels of a number axis for ranges of different
+ * magnitudes. Every invocation moves the range by a fraction of its extent,
+ * so the labels differ from one call to the next as they do while panning.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NumberTickFactoryBenchmark
+{
+    /** The extent of the range. */
+    @Param({"1e-6", "1", "1e3", "1e9"})
+    public double extent;
+
+    private static final int MAX_LABELS = 10;
+
+    private NumberTickFactory factory;
+    private int step;
+
+    @Setup
+    public void setUp()
+    {
+        factory = new NumberTickFactory();
+        step = 0;
+    }
+    private Range nextRange(double lower, double extent)
+    {
+        step = (step + 1) & 1023;
+        final double shift = extent*step/1024.0;
+        return new Range(lower + shift, lower + shift + extent);
+    }
+    @Benchmark
+    public List<ValueTick> generateLabels()
+    {
+        return factory.generateLabels(nextRange(-extent/3, extent), MAX_LABELS, 0);
+    }
+    @Benchmark
+    public TickSet createTicks()
+    {
+        return factory.createTicks(nextRange(-extent/3, extent), MAX_LABELS, 0);
+    }
+}
@@ -0,0 +1,98 @@
+package DataModel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The base class for <code>DataModel</code> implementations, managing the list
+ * of registered observers.
+ * <p>
+ * By default listeners are notified synchronously on every change, on the
+ * thread making it. When a notification executor is set, changes are
+ * coalesced: the first change hands a notification to the executor and all
+ * changes made before it runs result in that single notification. A model
+ * written by other threads can thus notify its chart on the event dispatch
+ * thread, e.g. through a (@link SimpleCharts.EventDispatchExecutor), once per
+ * turn of the event queue rather than once per change.
+ * <p>
+ * Listeners may be added and removed from any thread, including from within
+ * a notification.
+ */
+abstract public class AbstractDataModel<T> implements DataModel<T>
+{
+    private final List<ChangeListener> change_listeners;
+    private volatile Executor notification_executor;
+    private final AtomicBoolean is_notification_pending;
+    
+    protected AbstractDataModel()
+    {
+        change_listeners = new CopyOnWriteArrayList<ChangeListener>();
+        is_notification_pending = new AtomicBoolean();
+    }
+    @Override
+    public void addChangeListener(ChangeListener listener)
+    {
+        change_listeners.add(listener);
+    }
+    @Override
+    public void removeChangeListener(ChangeListener listener)
+    {
+        change_listeners.remove(listener);
+    }
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+    /**
+     * Returns the executor delivering change notifications.
+     * @return the executor, or <code>null</code> if listeners are notified immediately
+     * @see #setNotificationExecutor(Executor)
+     */
+    public Executor getNotificationExecutor()
+    {
+        return notification_executor;
+    }
+    /**
+     * Sets the executor delivering change notifications. Without an executor
+     * listeners are notified synchronously on every change; otherwise at most
+     * one notification is waiting in the executor at any time.
+     * @param executor the executor, or <code>null</code> to notify immediately
+     */
+    public void setNotificationExecutor(Executor executor)
+    {
+        notification_executor = executor;
+    }
+    /**
+     * Notify all registered listeners that the model has changed, coalescing
+     * the notification if a notification executor is set.
+     * @see #setNotificationExecutor(Executor)
+     */
+    protected void fireDataModelChanged()
+    {
+        final Executor executor = notification_executor;
+        if(executor == null)
+        {
+            notifyListeners();
+            return;
+        }
+        if(is_notification_pending.compareAndSet(false, true))
+            executor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    // changes made from now on need another notification
+                    is_notification_pending.set(false);
+                    notifyListeners();
+                }
+            });
+    }
+    private void notifyListeners()
+    {
+        for(ChangeListener listener : change_listeners)
+            listener.dataModelChanged();
+    }
+}
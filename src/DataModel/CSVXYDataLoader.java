@@ -0,0 +1,876 @@
+package DataModel;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads two columns of a CSV, TSV or otherwise delimited text file into a
+ * {@link ColumnarXYDataModel}.
+ * <p>
+ * Fields are parsed straight from the bytes of a <code>ByteBuffer</code> or
+ * <code>ReadableByteChannel</code> into <code>double[]</code> columns; no
+ * <code>String</code> or <code>XYData</code> is created per field or row.
+ * The data domain, range and sortedness are computed while parsing. Files
+ * and buffers large enough are split into chunks at line boundaries that are
+ * parsed in parallel and concatenated in order.
+ * <p>
+ * The x column holds plain numbers, ISO-8601 timestamps or epoch seconds or
+ * milliseconds (see {@link #setXFormat(int)}); timestamps are converted to
+ * epoch milliseconds as expected by (@link SimpleCharts.Axis.DateAxis). The y
+ * column holds plain numbers. Lines are terminated by <code>\n</code> or
+ * <code>\r\n</code> and fields may be enclosed in double quotes, but quoted
+ * fields must not span lines. Blank lines are ignored. Lines with a missing
+ * or malformed x value, such as a header row, are skipped and counted; a
+ * missing or malformed y value is read as <code>NaN</code>, which plots draw
+ * as a gap and which is left out of the data range.
+ * <p>
+ * A loader may be reused, but not by several threads at once.
+ */
+public class CSVXYDataLoader
+{
+    /** The x column holds decimal numbers. */
+    public static final int NUMBER = 0;
+    /**
+     * The x column holds ISO-8601 dates or date-times such as
+     * <code>2024-05-17</code>, <code>2024-05-17T09:30:00.250</code> or
+     * <code>2024-05-17 09:30:00+02:00</code>. Times without an offset are
+     * read in the loader's time zone.
+     */
+    public static final int ISO_8601 = 1;
+    /** The x column holds seconds since the epoch, possibly fractional. */
+    public static final int EPOCH_SECONDS = 2;
+    /** The x column holds milliseconds since the epoch. */
+    public static final int EPOCH_MILLIS = 3;
+
+    /** The size of the buffer used to read channels. */
+    private static final int BUFFER_SIZE = 1 << 20;
+    /** Chunks are never split smaller than this, so small inputs are parsed by one thread. */
+    private static final long MIN_CHUNK_SIZE = 1 << 22;
+    /** Keeps every mapped chunk well below the 2 GB limit of a mapping. */
+    private static final long MAX_CHUNK_SIZE = 1 << 30;
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final byte[] NAN = "NaN".getBytes(ASCII);
+    private static final byte[] INFINITY = "Infinity".getBytes(ASCII);
+    /** The powers of ten that are exactly representable as doubles. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private byte delimiter;
+    private int x_column, y_column;
+    private int header_lines;
+    private int x_format;
+    private TimeZone time_zone;
+    private int parallelism;
+    private long skipped_lines;
+
+    /**
+     * Constructs a loader reading numbers from the first two columns of
+     * comma-separated lines, using all available processors.
+     */
+    public CSVXYDataLoader()
+    {
+        this.delimiter = ',';
+        this.x_column = 0;
+        this.y_column = 1;
+        this.header_lines = 0;
+        this.x_format = NUMBER;
+        this.time_zone = TimeZone.getDefault();
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+    }
+    public char getDelimiter()
+    {
+        return (char)delimiter;
+    }
+    /**
+     * Sets the character separating the fields of a line, e.g.
+     * <code>'\t'</code> for TSV files.
+     * @param delimiter an ASCII character other than a quote or line terminator
+     */
+    public void setDelimiter(char delimiter)
+    {
+        if(delimiter == 0 || delimiter > 127 || delimiter == '"' || delimiter == '\n' || delimiter == '\r')
+            throw new IllegalArgumentException("Invalid 'delimiter' argument.");
+        this.delimiter = (byte)delimiter;
+    }
+    public int getXColumn()
+    {
+        return x_column;
+    }
+    public int getYColumn()
+    {
+        return y_column;
+    }
+    /**
+     * Sets the zero-based indices of the fields holding the x and y values.
+     * @param x_column the index of the x field
+     * @param y_column the index of the y field
+     */
+    public void setColumns(int x_column, int y_column)
+    {
+        if(x_column < 0 || y_column < 0)
+            throw new IllegalArgumentException("Negative column index.");
+        this.x_column = x_column;
+        this.y_column = y_column;
+    }
+    public int getHeaderLines()
+    {
+        return header_lines;
+    }
+    /**
+     * Sets the number of lines at the start of the input that are skipped
+     * without being parsed. A single header row need not be declared, since
+     * its x field does not parse and the line is skipped anyway.
+     * @param lines the number of lines to skip
+     */
+    public void setHeaderLines(int lines)
+    {
+        if(lines < 0)
+            throw new IllegalArgumentException("Negative 'lines' argument.");
+        this.header_lines = lines;
+    }
+    public int getXFormat()
+    {
+        return x_format;
+    }
+    /**
+     * Sets how the x field is parsed.
+     * @param format one of (@link #NUMBER), (@link #ISO_8601),
+     * (@link #EPOCH_SECONDS) or (@link #EPOCH_MILLIS)
+     */
+    public void setXFormat(int format)
+    {
+        if(format < NUMBER || format > EPOCH_MILLIS)
+            throw new IllegalArgumentException("Invalid 'format' argument.");
+        this.x_format = format;
+    }
+    public TimeZone getTimeZone()
+    {
+        return time_zone;
+    }
+    /**
+     * Sets the time zone of ISO-8601 times without an offset.
+     * @param time_zone the time zone, by default the default time zone
+     */
+    public void setTimeZone(TimeZone time_zone)
+    {
+        if(time_zone == null)
+            throw new IllegalArgumentException("Null 'time_zone' argument.");
+        this.time_zone = time_zone;
+    }
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+    /**
+     * Sets the maximum number of threads parsing one input.
+     * @param threads the number of threads, <code>1</code> to parse on the calling thread
+     */
+    public void setParallelism(int threads)
+    {
+        if(threads < 1)
+            throw new IllegalArgumentException("Invalid 'threads' argument.");
+        this.parallelism = threads;
+    }
+    /**
+     * Returns the number of non-blank lines skipped by the last load because
+     * they had no valid x value, not counting the declared header lines.
+     * @return the number of skipped lines
+     */
+    public long getSkippedLineCount()
+    {
+        return skipped_lines;
+    }
+    /**
+     * Loads a file. The file is mapped into memory and, if it is large
+     * enough, parsed in parallel.
+     * @param file the file
+     * @return a new model holding the points of the file
+     * @throws IOException if the file cannot be read
+     */
+    public ColumnarXYDataModel load(File file) throws IOException
+    {
+        if(file == null)
+            throw new IllegalArgumentException("Null 'file' argument.");
+        final FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try
+        {
+            final long length = channel.size();
+            final long chunk_size = chunkSize(length);
+            final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+            long start = 0;
+            while(start < length)
+            {
+                final long end = start + chunk_size >= length?length:nextLine(channel, start + chunk_size, length);
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+            return parse(chunks);
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+    /**
+     * Loads the remaining bytes of a buffer, parsing it in parallel if it is
+     * large enough. The position of the buffer is not changed.
+     * @param buffer the buffer
+     * @return a new model holding the points of the buffer
+     * @throws IOException if a parsing thread is interrupted
+     */
+    public ColumnarXYDataModel load(ByteBuffer buffer) throws IOException
+    {
+        if(buffer == null)
+            throw new IllegalArgumentException("Null 'buffer' argument.");
+        final int length = buffer.limit();
+        final long chunk_size = chunkSize(buffer.remaining());
+        final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+        int start = buffer.position();
+        while(start < length)
+        {
+            int end = length;
+            if(start + chunk_size < length)
+            {
+                end = (int)(start + chunk_size);
+                while(end < length && buffer.get(end - 1) != '\n')
+                    ++end;
+            }
+            final ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(end).position(start);
+            chunks.add(chunk.slice());
+            start = end;
+        }
+        return parse(chunks);
+    }
+    /**
+     * Loads everything read from a channel until its end, on the calling
+     * thread. Only a fixed-size buffer is used besides the columns, so the
+     * input may be larger than memory allows to hold.
+     * @param channel the channel, which is not closed
+     * @return a new model holding the points read
+     * @throws IOException if the channel cannot be read
+     */
+    public ColumnarXYDataModel load(ReadableByteChannel channel) throws IOException
+    {
+        if(channel == null)
+            throw new IllegalArgumentException("Null 'channel' argument.");
+        final Parser parser = new Parser(header_lines, BUFFER_SIZE/16);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        boolean is_end = false;
+        while(!is_end)
+        {
+            is_end = channel.read(buffer) < 0;
+            buffer.flip();
+            buffer.position(parser.parse(buffer, buffer.position(), buffer.limit(), is_end));
+            buffer.compact();
+            if(!buffer.hasRemaining())
+            {
+                // a single line fills the buffer
+                final ByteBuffer larger = ByteBuffer.allocate(2*buffer.capacity());
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+        skipped_lines = parser.skipped_lines;
+        return parser.toDataModel();
+    }
+    /**
+     * Returns the size of the chunks an input of the given length is split
+     * into, so that every thread parses about one chunk.
+     */
+    private long chunkSize(long length)
+    {
+        final long size = (length + parallelism - 1)/parallelism;
+        return Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size));
+    }
+    /**
+     * Returns the position after the first line terminator at or after
+     * <code>position</code>, or <code>length</code> if there is none.
+     */
+    private static long nextLine(FileChannel channel, long position, long length) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while(position < length)
+        {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if(read < 0)
+                throw new EOFException();
+            for(int i=0; i<read; ++i)
+                if(buffer.get(i) == '\n')
+                    return position + i + 1;
+            position += read;
+        }
+        return length;
+    }
+    /**
+     * Parses chunks ending at line boundaries, in parallel if there are
+     * several, and concatenates their points.
+     */
+    private ColumnarXYDataModel parse(final List<ByteBuffer> chunks) throws IOException
+    {
+        final int threads = Math.min(parallelism, chunks.size());
+        if(threads <= 1)
+        {
+            final Parser parser = new Parser(header_lines, estimateLines(chunks));
+            for(ByteBuffer chunk : chunks)
+                parser.parse(chunk, chunk.position(), chunk.limit(), true);
+            skipped_lines = parser.skipped_lines;
+            return parser.toDataModel();
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            final List<Future<Parser>> results = new ArrayList<Future<Parser>>();
+            for(int c=0; c<chunks.size(); ++c)
+            {
+                final ByteBuffer chunk = chunks.get(c);
+                final Parser parser = new Parser(c == 0?header_lines:0, estimateLines(Arrays.asList(chunk)));
+                results.add(executor.submit(new Callable<Parser>()
+                {
+                    @Override
+                    public Parser call()
+                    {
+                        parser.parse(chunk, chunk.position(), chunk.limit(), true);
+                        return parser;
+                    }
+                }));
+            }
+            final Parser[] parsers = new Parser[results.size()];
+            for(int c=0; c<parsers.length; ++c)
+                parsers[c] = results.get(c).get();
+            return concatenate(parsers);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing");
+        }
+        catch(ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if(cause instanceof Error)
+                throw (Error)cause;
+            throw new IOException(cause);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+    private ColumnarXYDataModel concatenate(Parser[] parsers)
+    {
+        long total = 0;
+        skipped_lines = 0;
+        for(Parser parser : parsers)
+        {
+            total += parser.size;
+            skipped_lines += parser.skipped_lines;
+        }
+        if(total > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Too many points: "+total);
+        final Parser result = new Parser(0, (int)total);
+        for(Parser parser : parsers)
+            result.append(parser);
+        return result.toDataModel();
+    }
+    /** Guesses the number of lines from the input size, assuming short lines. */
+    private static int estimateLines(List<ByteBuffer> chunks)
+    {
+        long bytes = 0;
+        for(ByteBuffer chunk : chunks)
+            bytes += chunk.remaining();
+        return (int)Math.min(Integer.MAX_VALUE - 8, bytes/24 + 16);
+    }
+
+    /**
+     * Parses lines into growable columns and tracks their domain, range and
+     * sortedness. Each thread uses its own parser.
+     */
+    private final class Parser
+    {
+        private final byte delimiter = CSVXYDataLoader.this.delimiter;
+        private final int x_column = CSVXYDataLoader.this.x_column;
+        private final int y_column = CSVXYDataLoader.this.y_column;
+        private final int x_format = CSVXYDataLoader.this.x_format;
+        private final TimeZone time_zone = (TimeZone)CSVXYDataLoader.this.time_zone.clone();
+        private double[] x_values, y_values;
+        private int size;
+        private double x_low, x_high, y_low, y_high;
+        private boolean is_sorted, has_range;
+        private long lines_to_skip, skipped_lines;
+        /** Cleared by the field parsers when a field is malformed. */
+        private boolean is_valid;
+        private byte[] scratch;
+
+        Parser(long lines_to_skip, int capacity)
+        {
+            this.lines_to_skip = lines_to_skip;
+            this.x_values = new double[capacity];
+            this.y_values = new double[capacity];
+            this.is_sorted = true;
+            this.scratch = new byte[64];
+        }
+        /**
+         * Parses the complete lines in <code>[from, to)</code>.
+         * @param is_end whether the input ends at <code>to</code>, so a last
+         * line without terminator is complete
+         * @return the position after the last line parsed
+         */
+        int parse(ByteBuffer buffer, int from, int to, boolean is_end)
+        {
+            int start = from;
+            while(start < to)
+            {
+                int end = start;
+                while(end < to && buffer.get(end) != '\n')
+                    ++end;
+                if(end == to && !is_end)
+                    break;
+                parseLine(buffer, start, end > start && buffer.get(end - 1) == '\r'?end - 1:end);
+                start = end < to?end + 1:to;
+            }
+            return start;
+        }
+        private void parseLine(ByteBuffer buffer, int start, int end)
+        {
+            if(lines_to_skip > 0)
+            {
+                --lines_to_skip;
+                return;
+            }
+            if(start == end)
+                return;
+            final int last_column = Math.max(x_column, y_column);
+            int x_start = -1, x_end = -1, y_start = -1, y_end = -1;
+            int column = 0;
+            int p = start;
+            while(column <= last_column)
+            {
+                int field_start = p, field_end;
+                if(p < end && buffer.get(p) == '"')
+                {
+                    field_start = ++p;
+                    while(p < end && buffer.get(p) != '"')
+                        ++p;
+                    field_end = p;
+                    while(p < end && buffer.get(p) != delimiter)
+                        ++p;
+                }
+                else
+                {
+                    while(p < end && buffer.get(p) != delimiter)
+                        ++p;
+                    field_end = p;
+                }
+                if(column == x_column)
+                {
+                    x_start = field_start;
+                    x_end = field_end;
+                }
+                if(column == y_column)
+                {
+                    y_start = field_start;
+                    y_end = field_end;
+                }
+                if(p == end)
+                    break;
+                ++p;
+                ++column;
+            }
+            if(x_start < 0)
+            {
+                ++skipped_lines;
+                return;
+            }
+            final double x = parseX(buffer, x_start, x_end);
+            if(!is_valid || Double.isNaN(x))
+            {
+                ++skipped_lines;
+                return;
+            }
+            double y = Double.NaN;
+            if(y_start >= 0)
+            {
+                y = parseNumber(buffer, y_start, y_end);
+                if(!is_valid)
+                    y = Double.NaN;
+            }
+            add(x, y);
+        }
+        private double parseX(ByteBuffer buffer, int start, int end)
+        {
+            switch(x_format)
+            {
+                case ISO_8601:
+                    return parseTimestamp(buffer, start, end);
+                case EPOCH_SECONDS:
+                    return 1000*parseNumber(buffer, start, end);
+                default:
+                    return parseNumber(buffer, start, end);
+            }
+        }
+        /**
+         * Parses a decimal number with an optional sign, fraction and
+         * exponent, or <code>NaN</code> or <code>Infinity</code>. Numbers whose
+         * significant digits form an integer of at most 2<sup>53</sup> and
+         * whose decimal exponent is at most 22 are computed exactly from their
+         * digits; other decimal numbers are handed to
+         * <code>Double.parseDouble</code>. Anything else, such as Java
+         * literals like <code>1d</code> or <code>0x1p3</code>, is malformed.
+         */
+        private double parseNumber(ByteBuffer buffer, int start, int end)
+        {
+            is_valid = true;
+            while(start < end && buffer.get(start) == ' ')
+                ++start;
+            while(end > start && buffer.get(end - 1) == ' ')
+                --end;
+            int p = start;
+            boolean is_negative = false;
+            if(p < end && (buffer.get(p) == '-' || buffer.get(p) == '+'))
+                is_negative = buffer.get(p++) == '-';
+            final int unsigned_start = p;
+            long mantissa = 0;
+            int digits = 0, exponent = 0;
+            boolean has_digits = false, is_exact = true;
+            byte b;
+            while(p < end && (b = buffer.get(p)) >= '0' && b <= '9')
+            {
+                has_digits = true;
+                if(digits < 18)
+                {
+                    mantissa = 10*mantissa + (b - '0');
+                    if(mantissa != 0)
+                        ++digits;
+                }
+                else
+                {
+                    ++exponent;
+                    is_exact = is_exact && b == '0';
+                }
+                ++p;
+            }
+            if(p < end && buffer.get(p) == '.')
+            {
+                ++p;
+                while(p < end && (b = buffer.get(p)) >= '0' && b <= '9')
+                {
+                    has_digits = true;
+                    if(digits < 18)
+                    {
+                        mantissa = 10*mantissa + (b - '0');
+                        if(mantissa != 0)
+                            ++digits;
+                        --exponent;
+                    }
+                    else
+                        is_exact = is_exact && b == '0';
+                    ++p;
+                }
+            }
+            if(has_digits && p < end && (buffer.get(p) == 'e' || buffer.get(p) == 'E'))
+            {
+                ++p;
+                boolean is_negative_exponent = false;
+                if(p < end && (buffer.get(p) == '-' || buffer.get(p) == '+'))
+                    is_negative_exponent = buffer.get(p++) == '-';
+                int e = 0;
+                boolean has_exponent = false;
+                while(p < end && (b = buffer.get(p)) >= '0' && b <= '9')
+                {
+                    has_exponent = true;
+                    if(e < 100000)
+                        e = 10*e + (b - '0');
+                    ++p;
+                }
+                if(!has_exponent)
+                    has_digits = false;
+                exponent += is_negative_exponent?-e:e;
+            }
+            if(start == end)
+            {
+                is_valid = false;
+                return Double.NaN;
+            }
+            if(!has_digits || p != end)
+            {
+                if(matches(buffer, unsigned_start, end, NAN))
+                    return Double.NaN;
+                if(matches(buffer, unsigned_start, end, INFINITY))
+                    return is_negative?Double.NEGATIVE_INFINITY:Double.POSITIVE_INFINITY;
+                is_valid = false;
+                return Double.NaN;
+            }
+            if(!is_exact || mantissa > (1L << 53) || exponent < -22 || exponent > 22)
+                return parseSlow(buffer, start, end);
+            final double value = exponent < 0?mantissa/POWERS_OF_TEN[-exponent]:mantissa*POWERS_OF_TEN[exponent];
+            return is_negative?-value:value;
+        }
+        /** Parses decimal numbers the fast path cannot, i.e. with long mantissas or large exponents. */
+        private double parseSlow(ByteBuffer buffer, int start, int end)
+        {
+            final int length = end - start;
+            if(scratch.length < length)
+                scratch = new byte[Math.max(length, 2*scratch.length)];
+            for(int i=0; i<length; ++i)
+                scratch[i] = buffer.get(start + i);
+            try
+            {
+                return Double.parseDouble(new String(scratch, 0, length, ASCII));
+            }
+            catch(NumberFormatException e)
+            {
+                is_valid = false;
+                return Double.NaN;
+            }
+        }
+        /**
+         * Parses an ISO-8601 date or date-time in extended format into epoch
+         * milliseconds.
+         */
+        private double parseTimestamp(ByteBuffer buffer, int start, int end)
+        {
+            is_valid = false;
+            while(start < end && buffer.get(start) == ' ')
+                ++start;
+            while(end > start && buffer.get(end - 1) == ' ')
+                --end;
+            if(end - start < 10 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-')
+                return Double.NaN;
+            final int year = digits(buffer, start, 4);
+            final int month = digits(buffer, start + 5, 2);
+            final int day = digits(buffer, start + 8, 2);
+            if(year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month))
+                return Double.NaN;
+            long millis = daysFromCivil(year, month, day)*86400000L;
+            int p = start + 10;
+            if(p < end && (buffer.get(p) == 'T' || buffer.get(p) == ' '))
+            {
+                if(end - p < 6 || buffer.get(p + 3) != ':')
+                    return Double.NaN;
+                final int hour = digits(buffer, p + 1, 2);
+                final int minute = digits(buffer, p + 4, 2);
+                if(hour < 0 || hour > 24 || minute < 0 || minute > 59)
+                    return Double.NaN;
+                millis += hour*3600000L + minute*60000L;
+                p += 6;
+                if(p < end && buffer.get(p) == ':')
+                {
+                    final int second = digits(buffer, p + 1, 2);
+                    if(second < 0 || second > 60)
+                        return Double.NaN;
+                    millis += second*1000L;
+                    p += 3;
+                    if(p < end && (buffer.get(p) == '.' || buffer.get(p) == ','))
+                    {
+                        // fractions of a second, truncated to nanoseconds
+                        long fraction = 0, scale = 1000000000L;
+                        byte b;
+                        ++p;
+                        final int fraction_start = p;
+                        while(p < end && (b = buffer.get(p)) >= '0' && b <= '9')
+                        {
+                            if(scale > 1)
+                            {
+                                scale /= 10;
+                                fraction += (b - '0')*scale;
+                            }
+                            ++p;
+                        }
+                        if(p == fraction_start)
+                            return Double.NaN;
+                        millis += fraction/1000000L;
+                        is_valid = true;
+                        if(p == end)
+                            return withLocalOffset(millis) + (fraction % 1000000L)/1e6;
+                        final double result = withOffset(buffer, p, end, millis);
+                        return is_valid?result + (fraction % 1000000L)/1e6:Double.NaN;
+                    }
+                }
+                if(p < end)
+                {
+                    is_valid = true;
+                    return withOffset(buffer, p, end, millis);
+                }
+            }
+            if(p != end)
+                return Double.NaN;
+            is_valid = true;
+            return withLocalOffset(millis);
+        }
+        /** Converts local milliseconds to UTC using the time zone of the loader. */
+        private double withLocalOffset(long millis)
+        {
+            return millis - time_zone.getOffset(millis - time_zone.getRawOffset());
+        }
+        /** Converts local milliseconds to UTC using a <code>Z</code>, <code>+hh</code>, <code>+hhmm</code> or <code>+hh:mm</code> (or <code>-</code>) suffix. */
+        private double withOffset(ByteBuffer buffer, int p, int end, long millis)
+        {
+            final byte sign = buffer.get(p);
+            if(sign == 'Z' && p + 1 == end)
+                return millis;
+            if(sign != '+' && sign != '-')
+            {
+                is_valid = false;
+                return Double.NaN;
+            }
+            final int length = end - p - 1;
+            final int hours = length >= 2?digits(buffer, p + 1, 2):-1;
+            int minutes = 0;
+            if(length == 4)
+                minutes = digits(buffer, p + 3, 2);
+            else if(length == 5 && buffer.get(p + 3) == ':')
+                minutes = digits(buffer, p + 4, 2);
+            else if(length != 2)
+                minutes = -1;
+            if(hours < 0 || hours > 18 || minutes < 0 || minutes > 59)
+            {
+                is_valid = false;
+                return Double.NaN;
+            }
+            final long offset = hours*3600000L + minutes*60000L;
+            return sign == '-'?millis + offset:millis - offset;
+        }
+        private void add(double x, double y)
+        {
+            if(size == x_values.length)
+            {
+                final int capacity = (int)Math.min(Integer.MAX_VALUE - 8, size + (size >> 1) + 16L);
+                if(capacity == size)
+                    throw new IllegalStateException("Too many points: "+size);
+                x_values = Arrays.copyOf(x_values, capacity);
+                y_values = Arrays.copyOf(y_values, capacity);
+            }
+            x_values[size] = x;
+            y_values[size] = y;
+            if(size == 0)
+                x_low = x_high = x;
+            else
+            {
+                is_sorted = is_sorted && x >= x_high;
+                x_high = Math.max(x_high, x);
+                x_low = Math.min(x_low, x);
+            }
+            if(!Double.isNaN(y))
+            {
+                if(!has_range)
+                {
+                    y_low = y_high = y;
+                    has_range = true;
+                }
+                else
+                {
+                    y_high = Math.max(y_high, y);
+                    y_low = Math.min(y_low, y);
+                }
+            }
+            ++size;
+        }
+        /** Appends the points of a parser holding the lines that follow. */
+        void append(Parser other)
+        {
+            if(other.size == 0)
+                return;
+            System.arraycopy(other.x_values, 0, x_values, size, other.size);
+            System.arraycopy(other.y_values, 0, y_values, size, other.size);
+            if(size == 0)
+            {
+                x_low = other.x_low;
+                x_high = other.x_high;
+                is_sorted = other.is_sorted;
+            }
+            else
+            {
+                is_sorted = is_sorted && other.is_sorted && other.x_values[0] >= x_high;
+                x_low = Math.min(x_low, other.x_low);
+                x_high = Math.max(x_high, other.x_high);
+            }
+            if(other.has_range)
+            {
+                y_low = has_range?Math.min(y_low, other.y_low):other.y_low;
+                y_high = has_range?Math.max(y_high, other.y_high):other.y_high;
+                has_range = true;
+            }
+            size += other.size;
+        }
+        ColumnarXYDataModel toDataModel()
+        {
+            return new ColumnarXYDataModel(x_values, y_values, size, size > 0?x_low:Double.NaN, x_high,
+                    has_range?y_low:Double.NaN, y_high, is_sorted);
+        }
+    }
+
+    /**
+     * Returns the value of <code>count</code> decimal digits, or
+     * <code>-1</code> if any of them is not a digit.
+     */
+    private static int digits(ByteBuffer buffer, int start, int count)
+    {
+        if(start + count > buffer.limit())
+            return -1;
+        int value = 0;
+        for(int i=start; i<start+count; ++i)
+        {
+            final int d = buffer.get(i) - '0';
+            if(d < 0 || d > 9)
+                return -1;
+            value = 10*value + d;
+        }
+        return value;
+    }
+    /**
+     * Returns whether the bytes in <code>[start, end)</code> equal <code>text</code>.
+     */
+    private static boolean matches(ByteBuffer buffer, int start, int end, byte[] text)
+    {
+        if(end - start != text.length)
+            return false;
+        for(int i=0; i<text.length; ++i)
+            if(buffer.get(start + i) != text[i])
+                return false;
+        return true;
+    }
+    /**
+     * Returns the number of days of a month of the proleptic Gregorian calendar.
+     */
+    private static int daysInMonth(int year, int month)
+    {
+        if(month == 2)
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0?29:28;
+        return month == 4 || month == 6 || month == 9 || month == 11?30:31;
+    }
+    /**
+     * Returns the number of days between 1970-01-01 and a date of the
+     * proleptic Gregorian calendar.
+     */
+    private static long daysFromCivil(int year, int month, int day)
+    {
+        final int y = month <= 2?year - 1:year;
+        final int era = (y >= 0?y:y - 399)/400;
+        final int year_of_era = y - era*400;
+        final int day_of_year = (153*(month + (month > 2?-3:9)) + 2)/5 + day - 1;
+        final int day_of_era = year_of_era*365 + year_of_era/4 - year_of_era/100 + day_of_year;
+        return era*146097L + day_of_era - 719468;
+    }
+}
@@ -0,0 +1,230 @@
+package DataModel;
+
+import SimpleCharts.Axis.Range;
+import java.util.Arrays;
+
+/**
+ * An <code>XYDataModel</code> storing its x and y values in two growable
+ * <code>double[]</code> columns rather than as a list of <code>XYData</code>
+ * objects.
+ * <p>
+ * Plots read the columns through <code>getX</code>, <code>getY</code>,
+ * <code>copyX</code> and <code>copyY</code>; <code>get</code> is only provided
+ * for compatibility and creates a new <code>XYData</code> on every call.
+ * <p>
+ * The model is append-only: live feeds add points with <code>append</code> or
+ * <code>appendBatch</code>; a batch sends a single change notification. Set a
+ * notification executor to coalesce the notifications of many appends.
+ * Points with a <code>NaN</code> coordinate are drawn as gaps and left out of
+ * the data domain and range.
+ * @see AbstractDataModel#setNotificationExecutor(java.util.concurrent.Executor)
+ */
+public class ColumnarXYDataModel extends AbstractDataModel<XYData> implements XYDataModel<XYData>, SequencedDataModel<XYData>
+{
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] x_values, y_values;
+    private int size;
+    private XYBounds bounds;
+
+    /**
+     * Constructs an empty model.
+     */
+    public ColumnarXYDataModel()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    /**
+     * Constructs an empty model able to hold <code>capacity</code> elements
+     * before its columns need to grow.
+     * @param capacity the initial capacity
+     */
+    public ColumnarXYDataModel(int capacity)
+    {
+        if(capacity < 0)
+            throw new IllegalArgumentException("Negative 'capacity' argument.");
+        x_values = new double[capacity];
+        y_values = new double[capacity];
+        size = 0;
+        bounds = new XYBounds();
+    }
+    /**
+     * Constructs a model over the given columns. The arrays are used directly
+     * and are not copied.
+     * @param x_values the x column
+     * @param y_values the y column, of the same length as <code>x_values</code>
+     */
+    public ColumnarXYDataModel(double[] x_values, double[] y_values)
+    {
+        this(x_values, y_values, x_values.length);
+    }
+    /**
+     * Constructs a model over the first <code>size</code> elements of the given
+     * columns. The arrays are used directly and are not copied.
+     * @param x_values the x column
+     * @param y_values the y column
+     * @param size the number of elements in use
+     */
+    public ColumnarXYDataModel(double[] x_values, double[] y_values, int size)
+    {
+        if(size < 0 || size > x_values.length || size > y_values.length)
+            throw new IllegalArgumentException("Invalid 'size' argument.");
+        this.x_values = x_values;
+        this.y_values = y_values;
+        this.size = size;
+        calculateRanges();
+    }
+    /**
+     * Constructs a model over columns whose data domain, range and sortedness
+     * were computed while they were filled, e.g. by a (@link CSVXYDataLoader).
+     * A <code>NaN</code> lower bound means there is no domain or range.
+     */
+    ColumnarXYDataModel(double[] x_values, double[] y_values, int size,
+            double x_low, double x_high, double y_low, double y_high, boolean is_sorted)
+    {
+        this.x_values = x_values;
+        this.y_values = y_values;
+        this.size = size;
+        this.bounds = new XYBounds(x_low, x_high, y_low, y_high, is_sorted);
+    }
+    @Override
+    public int size()
+    {
+        return size;
+    }
+    /**
+     * Returns <code>0</code>, since elements are only ever appended.
+     */
+    @Override
+    public long getFirstSequence()
+    {
+        return 0;
+    }
+    @Override
+    public XYData get(int index)
+    {
+        checkIndex(index);
+        return new SimpleXYData(x_values[index], y_values[index]);
+    }
+    @Override
+    public double getX(int index)
+    {
+        checkIndex(index);
+        return x_values[index];
+    }
+    @Override
+    public double getY(int index)
+    {
+        checkIndex(index);
+        return y_values[index];
+    }
+    @Override
+    public void copyX(int from, int to, double[] dst)
+    {
+        checkRange(from, to);
+        System.arraycopy(x_values, from, dst, 0, to-from);
+    }
+    @Override
+    public void copyY(int from, int to, double[] dst)
+    {
+        checkRange(from, to);
+        System.arraycopy(y_values, from, dst, 0, to-from);
+    }
+    @Override
+    public boolean isSortedByX()
+    {
+        return bounds.isSorted();
+    }
+    @Override
+    public Range getDataDomain()
+    {
+        return bounds.getDomain();
+    }
+    @Override
+    public Range getDataRange()
+    {
+        return bounds.getRange();
+    }
+    /**
+     * Appends an element to the end of the model, growing the columns as
+     * necessary, and notifies all registered listeners. The data domain and
+     * range are updated in constant time.
+     * @param x the x value
+     * @param y the y value
+     */
+    public void append(double x, double y)
+    {
+        ensureCapacity(size+1);
+        x_values[size] = x;
+        y_values[size] = y;
+        bounds.include(x, y);
+        ++size;
+        fireDataModelChanged();
+    }
+    /**
+     * Appends the elements of the given columns to the end of the model and
+     * sends a single notification to all registered listeners.
+     * @param xs the x values
+     * @param ys the y values, of the same length as <code>xs</code>
+     */
+    public void appendBatch(double[] xs, double[] ys)
+    {
+        if(xs.length != ys.length)
+            throw new IllegalArgumentException("Columns must have the same length");
+        appendBatch(xs, ys, 0, xs.length);
+    }
+    /**
+     * Appends the elements <code>from</code> (inclusive) to <code>to</code>
+     * (exclusive) of the given columns to the end of the model and sends a
+     * single notification to all registered listeners.
+     * @param xs the x values
+     * @param ys the y values
+     * @param from the index of the first element to append
+     * @param to the index after the last element to append
+     */
+    public void appendBatch(double[] xs, double[] ys, int from, int to)
+    {
+        if(from < 0 || from > to || to > xs.length || to > ys.length)
+            throw new IndexOutOfBoundsException("From: "+from+", To: "+to);
+        if(from == to)
+            return;
+        final int count = to - from;
+        ensureCapacity(size+count);
+        System.arraycopy(xs, from, x_values, size, count);
+        System.arraycopy(ys, from, y_values, size, count);
+        for(int i=size; i<size+count; ++i)
+            bounds.include(x_values[i], y_values[i]);
+        size += count;
+        fireDataModelChanged();
+    }
+    /**
+     * Increases the capacity of the columns, if necessary, so they can hold at
+     * least <code>capacity</code> elements.
+     * @param capacity the desired minimum capacity
+     */
+    public void ensureCapacity(int capacity)
+    {
+        if(capacity > x_values.length)
+        {
+            final int new_capacity = Math.max(capacity, x_values.length + (x_values.length >> 1) + 1);
+            x_values = Arrays.copyOf(x_values, new_capacity);
+            y_values = Arrays.copyOf(y_values, new_capacity);
+        }
+    }
+    private void calculateRanges()
+    {
+        bounds = new XYBounds();
+        for(int i=0; i<size; ++i)
+            bounds.include(x_values[i], y_values[i]);
+    }
+    private void checkIndex(int index)
+    {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+    }
+    private void checkRange(int from, int to)
+    {
+        if(from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("From: "+from+", To: "+to+", Size: "+size);
+    }
+}
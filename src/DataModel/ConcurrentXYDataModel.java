@@ -0,0 +1,341 @@
+package DataModel;
+
+import SimpleCharts.Axis.Range;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * An append-only <code>XYDataModel</code> that may be written by feed threads
+ * while it is read by the painting code on the event dispatch thread.
+ * <p>
+ * Values are stored in fixed-size chunks that never move once allocated, so
+ * appending never copies existing points. After every <code>append</code> or
+ * <code>appendBatch</code> the writer publishes an immutable {@link Snapshot}
+ * holding the size, a version stamp, the data domain and range and the chunk
+ * directory through a single volatile field. Readers never lock: every
+ * accessor of the model reads the latest snapshot, and {@link #snapshot()}
+ * returns it so a reader can work on one consistent state without allocating.
+ * Since points are only appended, the first <code>size()</code> points read
+ * at any time stay valid and unchanged. Points with a <code>NaN</code>
+ * coordinate are drawn as gaps and left out of the data domain and range.
+ * <p>
+ * Writers are serialized by a lock that readers never take, so a single feed
+ * thread never waits. Change notifications are sent on the writing thread
+ * unless a notification executor is set. To feed a chart, pass one running
+ * tasks on the event dispatch thread, such as a
+ * (@link SimpleCharts.EventDispatchExecutor#INSTANCE); notifications are then
+ * coalesced and delivered there.
+ * @see AbstractDataModel#setNotificationExecutor(Executor)
+ */
+public class ConcurrentXYDataModel extends AbstractDataModel<XYData> implements XYDataModel<XYData>, SequencedDataModel<XYData>
+{
+    /** The base-2 logarithm of the number of points per chunk. */
+    private static final int CHUNK_BITS = 13;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Object write_lock = new Object();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructs an empty model notifying its listeners on the writing thread.
+     */
+    public ConcurrentXYDataModel()
+    {
+        this(null);
+    }
+    /**
+     * Constructs an empty model delivering its change notifications with
+     * an executor.
+     * @param notification_executor the executor, or <code>null</code> to
+     * notify the listeners on the writing thread
+     */
+    public ConcurrentXYDataModel(Executor notification_executor)
+    {
+        snapshot = new Snapshot(new double[0][], new double[0][], 0, 0, new XYBounds());
+        setNotificationExecutor(notification_executor);
+    }
+    /**
+     * Returns the current state of the model. The snapshot is immutable and
+     * is not affected by later appends.
+     * @return the latest published snapshot
+     */
+    public Snapshot snapshot()
+    {
+        return snapshot;
+    }
+    /**
+     * Returns the number of appends and batches published so far.
+     * @return the version stamp of the latest snapshot
+     */
+    public long getVersion()
+    {
+        return snapshot.version;
+    }
+    @Override
+    public int size()
+    {
+        return snapshot.size;
+    }
+    /**
+     * Returns <code>0</code>, since elements are only ever appended.
+     */
+    @Override
+    public long getFirstSequence()
+    {
+        return 0;
+    }
+    @Override
+    public XYData get(int index)
+    {
+        return snapshot.get(index);
+    }
+    @Override
+    public double getX(int index)
+    {
+        return snapshot.getX(index);
+    }
+    @Override
+    public double getY(int index)
+    {
+        return snapshot.getY(index);
+    }
+    @Override
+    public void copyX(int from, int to, double[] dst)
+    {
+        snapshot.copyX(from, to, dst);
+    }
+    @Override
+    public void copyY(int from, int to, double[] dst)
+    {
+        snapshot.copyY(from, to, dst);
+    }
+    @Override
+    public boolean isSortedByX()
+    {
+        return snapshot.isSortedByX();
+    }
+    @Override
+    public Range getDataDomain()
+    {
+        return snapshot.getDataDomain();
+    }
+    @Override
+    public Range getDataRange()
+    {
+        return snapshot.getDataRange();
+    }
+    /**
+     * Appends a point and notifies all registered listeners. May be called
+     * from any thread.
+     * @param x the x value
+     * @param y the y value
+     */
+    public void append(double x, double y)
+    {
+        synchronized(write_lock)
+        {
+            final Writer w = new Writer(snapshot, 1);
+            w.add(x, y);
+            snapshot = w.publish();
+        }
+        fireDataModelChanged();
+    }
+    /**
+     * Appends the points of the given columns, publishes them at once and
+     * sends a single notification to all registered listeners. May be called
+     * from any thread.
+     * @param xs the x values
+     * @param ys the y values, of the same length as <code>xs</code>
+     */
+    public void appendBatch(double[] xs, double[] ys)
+    {
+        if(xs.length != ys.length)
+            throw new IllegalArgumentException("Columns must have the same length");
+        appendBatch(xs, ys, 0, xs.length);
+    }
+    /**
+     * Appends the elements <code>from</code> (inclusive) to <code>to</code>
+     * (exclusive) of the given columns, publishes them at once and sends a
+     * single notification to all registered listeners. May be called from any
+     * thread.
+     * @param xs the x values
+     * @param ys the y values
+     * @param from the index of the first element to append
+     * @param to the index after the last element to append
+     */
+    public void appendBatch(double[] xs, double[] ys, int from, int to)
+    {
+        if(from < 0 || from > to || to > xs.length || to > ys.length)
+            throw new IndexOutOfBoundsException("From: "+from+", To: "+to);
+        if(from == to)
+            return;
+        synchronized(write_lock)
+        {
+            final Writer w = new Writer(snapshot, to - from);
+            for(int i=from; i<to; ++i)
+                w.add(xs[i], ys[i]);
+            snapshot = w.publish();
+        }
+        fireDataModelChanged();
+    }
+
+    /**
+     * Builds the next snapshot from the current one. Only used while holding
+     * the write lock.
+     */
+    private static final class Writer
+    {
+        private double[][] x_chunks, y_chunks;
+        private int size;
+        private final XYBounds bounds;
+        private final long version;
+
+        Writer(Snapshot s, int count)
+        {
+            x_chunks = s.x_chunks;
+            y_chunks = s.y_chunks;
+            size = s.size;
+            // published snapshots never change, so the bounds are copied
+            bounds = new XYBounds(s.bounds);
+            version = s.version + 1;
+            final int chunks = (int)(((long)size + count + CHUNK_MASK) >>> CHUNK_BITS);
+            if(chunks > x_chunks.length)
+            {
+                // the directory is copied, the chunks are shared with older snapshots
+                final int old_chunks = x_chunks.length;
+                x_chunks = Arrays.copyOf(x_chunks, chunks);
+                y_chunks = Arrays.copyOf(y_chunks, chunks);
+                for(int c=old_chunks; c<chunks; ++c)
+                {
+                    x_chunks[c] = new double[CHUNK_SIZE];
+                    y_chunks[c] = new double[CHUNK_SIZE];
+                }
+            }
+        }
+        void add(double x, double y)
+        {
+            x_chunks[size >>> CHUNK_BITS][size & CHUNK_MASK] = x;
+            y_chunks[size >>> CHUNK_BITS][size & CHUNK_MASK] = y;
+            bounds.include(x, y);
+            ++size;
+        }
+        Snapshot publish()
+        {
+            return new Snapshot(x_chunks, y_chunks, size, version, bounds);
+        }
+    }
+
+    /**
+     * An immutable view of the first <code>size()</code> points of a
+     * <code>ConcurrentXYDataModel</code> at one version. A snapshot never
+     * changes, so it never notifies its listeners.
+     */
+    public static final class Snapshot implements XYDataModel<XYData>
+    {
+        private final double[][] x_chunks, y_chunks;
+        private final int size;
+        private final long version;
+        /** Owned by the snapshot and never modified. */
+        private final XYBounds bounds;
+
+        Snapshot(double[][] x_chunks, double[][] y_chunks, int size, long version, XYBounds bounds)
+        {
+            this.x_chunks = x_chunks;
+            this.y_chunks = y_chunks;
+            this.size = size;
+            this.version = version;
+            this.bounds = bounds;
+        }
+        /**
+         * Returns the version stamp of this snapshot, which increases with
+         * every append or batch published by the model.
+         * @return the version
+         */
+        public long getVersion()
+        {
+            return version;
+        }
+        @Override
+        public int size()
+        {
+            return size;
+        }
+        @Override
+        public boolean isEmpty()
+        {
+            return size == 0;
+        }
+        @Override
+        public void addChangeListener(ChangeListener listener)
+        {
+        }
+        @Override
+        public void removeChangeListener(ChangeListener listener)
+        {
+        }
+        @Override
+        public XYData get(int index)
+        {
+            checkIndex(index);
+            return new SimpleXYData(x_chunks[index >>> CHUNK_BITS][index & CHUNK_MASK],
+                    y_chunks[index >>> CHUNK_BITS][index & CHUNK_MASK]);
+        }
+        @Override
+        public double getX(int index)
+        {
+            checkIndex(index);
+            return x_chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+        @Override
+        public double getY(int index)
+        {
+            checkIndex(index);
+            return y_chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+        @Override
+        public void copyX(int from, int to, double[] dst)
+        {
+            copy(x_chunks, from, to, dst);
+        }
+        @Override
+        public void copyY(int from, int to, double[] dst)
+        {
+            copy(y_chunks, from, to, dst);
+        }
+        @Override
+        public boolean isSortedByX()
+        {
+            return bounds.isSorted();
+        }
+        @Override
+        public Range getDataDomain()
+        {
+            return bounds.getDomain();
+        }
+        @Override
+        public Range getDataRange()
+        {
+            return bounds.getRange();
+        }
+        private void copy(double[][] chunks, int from, int to, double[] dst)
+        {
+            if(from < 0 || to > size || from > to)
+                throw new IndexOutOfBoundsException("From: "+from+", To: "+to+", Size: "+size);
+            int offset = 0;
+            while(from < to)
+            {
+                final int start = from & CHUNK_MASK;
+                final int length = Math.min(to - from, CHUNK_SIZE - start);
+                System.arraycopy(chunks[from >>> CHUNK_BITS], start, dst, offset, length);
+                offset += length;
+                from += length;
+            }
+        }
+        private void checkIndex(int index)
+        {
+            if(index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+        }
+    }
+}
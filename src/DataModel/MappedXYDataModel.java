@@ -0,0 +1,172 @@
+package DataModel;
+
+import SimpleCharts.Axis.Range;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only <code>XYDataModel</code> backed by a memory-mapped
+ * {@link XYDataFile}.
+ * <p>
+ * Opening a file reads only its header and maps the columns, so it takes
+ * constant time regardless of the size of the file. Points are read from the
+ * mapping on demand without being copied to the heap; the operating system
+ * pages them in when they are first accessed and keeps them in its page cache.
+ * Since a single mapping is limited to 2 GB, each column is mapped in
+ * segments of a fixed number of points.
+ * <p>
+ * The file must not be modified while it is mapped. The model never changes,
+ * so it never notifies its listeners.
+ */
+public class MappedXYDataModel extends AbstractDataModel<XYData> implements XYDataModel<XYData>, SequencedDataModel<XYData>, Closeable
+{
+    /** The base-2 logarithm of the number of points per mapped segment. */
+    private static final int SEGMENT_BITS = 27;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final DoubleBuffer[] x_segments, y_segments;
+    private final int size;
+    private final XYBounds bounds;
+
+    /**
+     * Opens and maps a data file.
+     * @param file the file written by a (@link XYDataFile.Writer)
+     * @throws IOException if the file cannot be read or is not a valid data file
+     */
+    public MappedXYDataModel(File file) throws IOException
+    {
+        if(file == null)
+            throw new IllegalArgumentException("Null 'file' argument.");
+        channel = new RandomAccessFile(file, "r").getChannel();
+        try
+        {
+            final ByteBuffer header = XYDataFile.readHeader(channel);
+            final long count = header.getLong(8);
+            if(count > Integer.MAX_VALUE)
+                throw new IOException("Too many points: "+count);
+            size = (int)count;
+            bounds = new XYBounds(header.getDouble(24), header.getDouble(32),
+                    header.getDouble(40), header.getDouble(48), (header.getInt(16) & XYDataFile.FLAG_SORTED) != 0);
+            x_segments = map(XYDataFile.HEADER_SIZE);
+            y_segments = map(XYDataFile.HEADER_SIZE + 8L*size);
+        }
+        catch(IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+        catch(RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+    /**
+     * Closes the file. The mappings stay valid until they are garbage
+     * collected, so a chart still painting the model is not affected.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+    @Override
+    public int size()
+    {
+        return size;
+    }
+    /**
+     * Returns <code>0</code>, since the model never changes.
+     */
+    @Override
+    public long getFirstSequence()
+    {
+        return 0;
+    }
+    @Override
+    public XYData get(int index)
+    {
+        checkIndex(index);
+        return new SimpleXYData(x_segments[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK),
+                y_segments[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK));
+    }
+    @Override
+    public double getX(int index)
+    {
+        checkIndex(index);
+        return x_segments[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK);
+    }
+    @Override
+    public double getY(int index)
+    {
+        checkIndex(index);
+        return y_segments[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK);
+    }
+    @Override
+    public void copyX(int from, int to, double[] dst)
+    {
+        copy(x_segments, from, to, dst);
+    }
+    @Override
+    public void copyY(int from, int to, double[] dst)
+    {
+        copy(y_segments, from, to, dst);
+    }
+    @Override
+    public boolean isSortedByX()
+    {
+        return bounds.isSorted();
+    }
+    @Override
+    public Range getDataDomain()
+    {
+        return size > 0?bounds.getDomain():null;
+    }
+    @Override
+    public Range getDataRange()
+    {
+        return size > 0?bounds.getRange():null;
+    }
+    private DoubleBuffer[] map(long position) throws IOException
+    {
+        final DoubleBuffer[] segments = new DoubleBuffer[(int)(((long)size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+        for(int s=0; s<segments.length; ++s)
+        {
+            final long length = Math.min(SEGMENT_SIZE, size - ((long)s << SEGMENT_BITS));
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position + 8L*((long)s << SEGMENT_BITS), 8*length)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return segments;
+    }
+    private void copy(DoubleBuffer[] segments, int from, int to, double[] dst)
+    {
+        if(from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("From: "+from+", To: "+to+", Size: "+size);
+        int offset = 0;
+        while(from < to)
+        {
+            final int start = from & SEGMENT_MASK;
+            final int length = Math.min(to - from, SEGMENT_SIZE - start);
+            // a duplicate keeps the shared segment's position untouched
+            final DoubleBuffer segment = segments[from >>> SEGMENT_BITS].duplicate();
+            segment.position(start);
+            segment.get(dst, offset, length);
+            offset += length;
+            from += length;
+        }
+    }
+    private void checkIndex(int index)
+    {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+    }
+}
@@ -0,0 +1,329 @@
+package DataModel;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * A multi-resolution index over the y values of an <code>XYDataModel</code>.
+ * <p>
+ * Level <code>l</code> of the pyramid divides the elements into consecutive
+ * blocks of <code>2<sup>l</sup></code> elements and stores, for every
+ * complete block, the index of the element with the smallest and the largest
+ * y value. Levels start at {@link #BASE_LEVEL}; finer detail is read from the
+ * model itself. Blocks containing an element with a <code>NaN</code>
+ * coordinate are marked as gaps, since they cannot be drawn as one run. The
+ * index takes roughly two bytes per element.
+ * <p>
+ * Blocks are aligned on sequence numbers (see (@link SequencedDataModel)),
+ * which are the plain indices for other models. The pyramid registers with the
+ * model and is brought up to date lazily by {@link #validate()}: for a
+ * <code>SequencedDataModel</code> only the blocks completed by appended
+ * elements are added and those touched by removed elements are dropped, so
+ * keeping the index of a live feed current costs time proportional to the
+ * number of new elements. Other models are indexed again after every change.
+ * <p>
+ * The model only holds a weak reference to the pyramid, so a pyramid that is
+ * no longer used can be garbage collected even while the model lives on; its
+ * listener is removed on the next change notification. Call
+ * {@link #dispose()} to unregister the pyramid immediately.
+ */
+public class MinMaxPyramid
+{
+    /** The finest level stored, i.e. blocks of 8 elements. */
+    public static final int BASE_LEVEL = 3;
+    /** The index returned for blocks containing a <code>NaN</code> coordinate. */
+    public static final int GAP = -1;
+
+    private final XYDataModel<?> data;
+    private final SequencedDataModel<?> sequenced;
+    private final Invalidator invalidator;
+    /** Indexed by <code>level - BASE_LEVEL</code>. */
+    private Level[] levels;
+    /** The sequence numbers of the first element and after the last element indexed. */
+    private long first_sequence, end_sequence;
+    private boolean is_valid;
+
+    /**
+     * Constructs a pyramid over the given model. The index is built on the
+     * first call to {@link #validate()}.
+     * @param data the model to index
+     */
+    public MinMaxPyramid(XYDataModel<?> data)
+    {
+        this.data = data;
+        this.sequenced = data instanceof SequencedDataModel?(SequencedDataModel<?>)data:null;
+        this.levels = new Level[0];
+        this.is_valid = false;
+        this.invalidator = new Invalidator(this);
+        data.addChangeListener(invalidator);
+    }
+    /**
+     * Unregisters this pyramid from its model and releases the index. The
+     * pyramid must not be used afterwards.
+     */
+    public void dispose()
+    {
+        data.removeChangeListener(invalidator);
+        levels = new Level[0];
+        first_sequence = end_sequence = 0;
+        is_valid = false;
+    }
+    public XYDataModel<?> getDataModel()
+    {
+        return data;
+    }
+    /**
+     * Brings the index up to date with the model.
+     */
+    public void validate()
+    {
+        final int n = data.size();
+        if(sequenced == null)
+        {
+            if(is_valid && n == end_sequence)
+                return;
+            // any element may have changed
+            levels = new Level[0];
+            first_sequence = end_sequence = 0;
+            is_valid = true;
+            update(0, n);
+            return;
+        }
+        is_valid = true;
+        final long first = sequenced.getFirstSequence();
+        if(first == first_sequence && first + n == end_sequence)
+            return;
+        if(first < first_sequence || first + n < end_sequence)
+        {
+            // not an append or removal from the front, so the model broke its contract
+            levels = new Level[0];
+            first_sequence = end_sequence = first;
+        }
+        update(first, n);
+    }
+    /**
+     * Returns the number of elements covered by the index.
+     * @return the size of the model when the index was last validated
+     */
+    public int size()
+    {
+        return (int)(end_sequence - first_sequence);
+    }
+    /**
+     * Returns the sequence number of the element at index <code>0</code>
+     * when the index was last validated.
+     * @return the first sequence number, <code>0</code> unless the model is a
+     * (@link SequencedDataModel) that removed elements
+     */
+    public long getFirstSequence()
+    {
+        return first_sequence;
+    }
+    /**
+     * Returns the coarsest level stored, or <code>BASE_LEVEL - 1</code> if the
+     * model is too small to have any level.
+     * @return the top level
+     */
+    public int getTopLevel()
+    {
+        return BASE_LEVEL + levels.length - 1;
+    }
+    /**
+     * Returns the index of the element with the smallest y value in a block.
+     * Every complete block of elements covered by the index is stored.
+     * @param level the level, from <code>BASE_LEVEL</code> to <code>getTopLevel()</code>
+     * @param block the block, covering the elements with sequence numbers
+     * <code>block &lt;&lt; level</code> to <code>((block + 1) &lt;&lt; level) - 1</code>
+     * @return the element index, or {@link #GAP}
+     */
+    public int getMinIndex(int level, long block)
+    {
+        final int offset = levels[level - BASE_LEVEL].getMin(block);
+        return offset == GAP?GAP:(int)((block << level) + offset - first_sequence);
+    }
+    /**
+     * Returns the index of the element with the largest y value in a block.
+     * Every complete block of elements covered by the index is stored.
+     * @param level the level, from <code>BASE_LEVEL</code> to <code>getTopLevel()</code>
+     * @param block the block, covering the elements with sequence numbers
+     * <code>block &lt;&lt; level</code> to <code>((block + 1) &lt;&lt; level) - 1</code>
+     * @return the element index, or {@link #GAP}
+     */
+    public int getMaxIndex(int level, long block)
+    {
+        final int offset = levels[level - BASE_LEVEL].getMax(block);
+        return offset == GAP?GAP:(int)((block << level) + offset - first_sequence);
+    }
+    /**
+     * Drops the blocks no longer complete within the elements with sequence
+     * numbers <code>[first, first + n)</code> and adds those newly complete.
+     */
+    private void update(long first, int n)
+    {
+        final long end = first + n;
+        int count = 0;
+        while((n >> (BASE_LEVEL + count)) > 0)
+            ++count;
+        if(count > levels.length)
+        {
+            final int old_count = levels.length;
+            levels = Arrays.copyOf(levels, count);
+            for(int k=old_count; k<count; ++k)
+                levels[k] = new Level();
+        }
+        // the elements being indexed have sequence numbers [first, end)
+        first_sequence = first;
+        end_sequence = end;
+        for(int k=0; k<levels.length; ++k)
+        {
+            final int level = BASE_LEVEL + k;
+            final Level blocks = levels[k];
+            final long low = (first + (1L << level) - 1) >> level;
+            final long high = end >> level;
+            blocks.dropBefore(low);
+            for(long b=Math.max(low, blocks.getEndBlock()); b<high; ++b)
+            {
+                if(k == 0)
+                    addBaseBlock(blocks, b);
+                else
+                    addBlock(blocks, levels[k-1], level, b);
+            }
+        }
+    }
+    private void addBaseBlock(Level blocks, long block)
+    {
+        final int start = (int)((block << BASE_LEVEL) - first_sequence);
+        int min_index = -1, max_index = -1;
+        double min_y = 0, max_y = 0;
+        for(int i=start; i<start+(1 << BASE_LEVEL); ++i)
+        {
+            final double y = data.getY(i);
+            if(Double.isNaN(y) || Double.isNaN(data.getX(i)))
+            {
+                blocks.add(block, GAP, GAP);
+                return;
+            }
+            if(min_index < 0 || y < min_y)
+            {
+                min_y = y;
+                min_index = i;
+            }
+            if(max_index < 0 || y > max_y)
+            {
+                max_y = y;
+                max_index = i;
+            }
+        }
+        blocks.add(block, min_index - start, max_index - start);
+    }
+    private void addBlock(Level blocks, Level children, int level, long block)
+    {
+        final long child = 2*block;
+        final int min = select(children.getMin(child), children.getMin(child + 1), level - 1, child, false);
+        final int max = select(children.getMax(child), children.getMax(child + 1), level - 1, child, true);
+        blocks.add(block, min, max);
+    }
+    /**
+     * Returns the offset within the parent block of whichever of two sibling
+     * entries has the smaller (or larger) y value, the first on ties, or
+     * <code>GAP</code> if either is a gap.
+     */
+    private int select(int a, int b, int child_level, long first_child, boolean largest)
+    {
+        if(a == GAP || b == GAP)
+            return GAP;
+        final int b_offset = b + (1 << child_level);
+        final long base = (first_child << child_level) - first_sequence;
+        final double y_a = data.getY((int)(base + a));
+        final double y_b = data.getY((int)(base + b_offset));
+        if(largest)
+            return y_b > y_a?b_offset:a;
+        return y_b < y_a?b_offset:a;
+    }
+
+    /**
+     * Marks a pyramid as out of date when its model changes, without keeping
+     * it reachable from the model.
+     */
+    private static final class Invalidator implements DataModel.ChangeListener
+    {
+        private final WeakReference<MinMaxPyramid> pyramid;
+        private final XYDataModel<?> data;
+
+        Invalidator(MinMaxPyramid pyramid)
+        {
+            this.pyramid = new WeakReference<MinMaxPyramid>(pyramid);
+            this.data = pyramid.data;
+        }
+        @Override
+        public void dataModelChanged()
+        {
+            final MinMaxPyramid p = pyramid.get();
+            if(p == null)
+                data.removeChangeListener(this);
+            else
+                p.is_valid = false;
+        }
+    }
+
+    /**
+     * The entries of one level for a sliding window of consecutive blocks.
+     * Each entry holds the offsets of the minimum and maximum within the block.
+     */
+    private static final class Level
+    {
+        private int[] min_offsets = new int[16], max_offsets = new int[16];
+        /** The position of the entry of <code>first_block</code> in the arrays. */
+        private int start;
+        private int count;
+        private long first_block;
+
+        long getEndBlock()
+        {
+            return first_block + count;
+        }
+        int getMin(long block)
+        {
+            return min_offsets[start + (int)(block - first_block)];
+        }
+        int getMax(long block)
+        {
+            return max_offsets[start + (int)(block - first_block)];
+        }
+        void dropBefore(long block)
+        {
+            final int drop = (int)Math.min(count, Math.max(0, block - first_block));
+            start += drop;
+            count -= drop;
+            first_block += drop;
+            if(count == 0)
+            {
+                start = 0;
+                first_block = Math.max(first_block, block);
+            }
+        }
+        void add(long block, int min, int max)
+        {
+            if(count == 0)
+                first_block = block;
+            if(start + count == min_offsets.length)
+            {
+                if(start >= min_offsets.length/2)
+                {
+                    // reuse the space of dropped entries
+                    System.arraycopy(min_offsets, start, min_offsets, 0, count);
+                    System.arraycopy(max_offsets, start, max_offsets, 0, count);
+                }
+                else
+                {
+                    min_offsets = Arrays.copyOfRange(min_offsets, start, start + 2*min_offsets.length);
+                    max_offsets = Arrays.copyOfRange(max_offsets, start, start + 2*max_offsets.length);
+                }
+                start = 0;
+            }
+            min_offsets[start + count] = min;
+            max_offsets[start + count] = max;
+            ++count;
+        }
+    }
+}
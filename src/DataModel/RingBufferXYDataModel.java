@@ -0,0 +1,277 @@
+package DataModel;
+
+import SimpleCharts.Axis.Range;
+
+/**
+ * A fixed-capacity <code>XYDataModel</code> holding the most recent points of
+ * a stream. Once full, every appended point evicts the oldest one.
+ * <p>
+ * Values are kept in primitive ring buffers and the minimum and maximum of the
+ * retained window are tracked with monotonic deques, so appending a point and
+ * querying the data domain or range are constant time (amortized) operations.
+ * No storage is allocated after construction; only <code>get</code>,
+ * <code>getDataDomain</code> and <code>getDataRange</code> create objects for
+ * their results.
+ */
+public class RingBufferXYDataModel extends AbstractDataModel<XYData> implements XYDataModel<XYData>, SequencedDataModel<XYData>
+{
+    private final int capacity;
+    private final double[] x_values, y_values;
+    private final MonotonicDeque x_min, x_max, y_min, y_max;
+    /**
+     * The physical index of the oldest element. The element with sequence
+     * number <code>s</code> is always stored at <code>s % capacity</code>.
+     */
+    private int start;
+    private int size;
+    /** The sequence number of the next element, i.e. the number of elements ever appended. */
+    private long count;
+    /** The number of adjacent pairs in the window whose x values decrease (or are <code>NaN</code>). */
+    private int descents;
+
+    /**
+     * Constructs an empty model retaining at most <code>capacity</code> points.
+     * @param capacity the window size
+     */
+    public RingBufferXYDataModel(int capacity)
+    {
+        if(capacity <= 0)
+            throw new IllegalArgumentException("Non-positive 'capacity' argument.");
+        this.capacity = capacity;
+        x_values = new double[capacity];
+        y_values = new double[capacity];
+        x_min = new MonotonicDeque(capacity, false);
+        x_max = new MonotonicDeque(capacity, true);
+        y_min = new MonotonicDeque(capacity, false);
+        y_max = new MonotonicDeque(capacity, true);
+        start = 0;
+        size = 0;
+        count = 0;
+        descents = 0;
+    }
+    /**
+     * Returns the maximum number of points retained by this model.
+     * @return the capacity
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+    @Override
+    public int size()
+    {
+        return size;
+    }
+    /**
+     * Returns the number of points evicted or cleared so far.
+     */
+    @Override
+    public long getFirstSequence()
+    {
+        return count - size;
+    }
+    @Override
+    public XYData get(int index)
+    {
+        final int slot = slot(index);
+        return new SimpleXYData(x_values[slot], y_values[slot]);
+    }
+    @Override
+    public double getX(int index)
+    {
+        return x_values[slot(index)];
+    }
+    @Override
+    public double getY(int index)
+    {
+        return y_values[slot(index)];
+    }
+    @Override
+    public void copyX(int from, int to, double[] dst)
+    {
+        copy(x_values, from, to, dst);
+    }
+    @Override
+    public void copyY(int from, int to, double[] dst)
+    {
+        copy(y_values, from, to, dst);
+    }
+    @Override
+    public boolean isSortedByX()
+    {
+        return descents == 0;
+    }
+    @Override
+    public Range getDataDomain()
+    {
+        if(x_min.isEmpty())
+            return null;
+        return new Range(x_values[x_min.first()], x_values[x_max.first()]);
+    }
+    @Override
+    public Range getDataRange()
+    {
+        if(y_min.isEmpty())
+            return null;
+        return new Range(y_values[y_min.first()], y_values[y_max.first()]);
+    }
+    /**
+     * Appends a point, evicting the oldest one if the model is full, and
+     * notifies all registered listeners.
+     * @param x the x value
+     * @param y the y value
+     */
+    public void append(double x, double y)
+    {
+        add(x, y);
+        fireDataModelChanged();
+    }
+    /**
+     * Appends the points of the given columns, evicting the oldest ones as
+     * necessary, and sends a single notification to all registered listeners.
+     * @param xs the x values
+     * @param ys the y values, of the same length as <code>xs</code>
+     */
+    public void appendBatch(double[] xs, double[] ys)
+    {
+        if(xs.length != ys.length)
+            throw new IllegalArgumentException("Columns must have the same length");
+        if(xs.length == 0)
+            return;
+        for(int i=0; i<xs.length; ++i)
+            add(xs[i], ys[i]);
+        fireDataModelChanged();
+    }
+    /**
+     * Removes all points from the model and notifies all registered listeners.
+     */
+    public void clear()
+    {
+        start = (int)(count % capacity);
+        size = 0;
+        descents = 0;
+        x_min.clear();
+        x_max.clear();
+        y_min.clear();
+        y_max.clear();
+        fireDataModelChanged();
+    }
+    private void add(double x, double y)
+    {
+        if(size > 0 && capacity > 1)
+        {
+            if(!(x >= x_values[physical(size-1)]))
+                ++descents;
+            if(size == capacity && !(x_values[physical(1)] >= x_values[start]))
+                --descents;
+        }
+        final int slot;
+        if(size == capacity)
+        {
+            final long evicted = count - capacity;
+            x_min.evict(evicted);
+            x_max.evict(evicted);
+            y_min.evict(evicted);
+            y_max.evict(evicted);
+            slot = start;
+            start = start+1 == capacity?0:start+1;
+        }
+        else
+        {
+            slot = physical(size);
+            ++size;
+        }
+        x_values[slot] = x;
+        y_values[slot] = y;
+        x_min.push(count, x_values);
+        x_max.push(count, x_values);
+        y_min.push(count, y_values);
+        y_max.push(count, y_values);
+        ++count;
+    }
+    private int physical(int index)
+    {
+        final int slot = start + index;
+        return slot >= capacity?slot-capacity:slot;
+    }
+    private int slot(int index)
+    {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+        return physical(index);
+    }
+    private void copy(double[] values, int from, int to, double[] dst)
+    {
+        if(from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("From: "+from+", To: "+to+", Size: "+size);
+        final int first = physical(from);
+        final int length = to - from;
+        final int head = Math.min(length, capacity - first);
+        System.arraycopy(values, first, dst, 0, head);
+        System.arraycopy(values, 0, dst, head, length - head);
+    }
+
+    /**
+     * A deque of element sequence numbers whose values are monotonically
+     * increasing (minimum deque) or decreasing (maximum deque) from front to
+     * back, so the front always holds the extreme of the window.
+     */
+    private static final class MonotonicDeque
+    {
+        private final long[] sequences;
+        private final boolean is_max;
+        private int head, length;
+
+        MonotonicDeque(int capacity, boolean is_max)
+        {
+            this.sequences = new long[capacity];
+            this.is_max = is_max;
+        }
+        boolean isEmpty()
+        {
+            return length == 0;
+        }
+        /**
+         * Returns the ring buffer slot of the extreme value.
+         */
+        int first()
+        {
+            return (int)(sequences[head] % sequences.length);
+        }
+        void push(long sequence, double[] values)
+        {
+            final int capacity = sequences.length;
+            final double value = values[(int)(sequence % capacity)];
+            if(Double.isNaN(value))
+                return;
+            while(length > 0)
+            {
+                int tail = head + length - 1;
+                if(tail >= capacity)
+                    tail -= capacity;
+                final double last = values[(int)(sequences[tail] % capacity)];
+                if(is_max?last > value:last < value)
+                    break;
+                --length;
+            }
+            int tail = head + length;
+            if(tail >= capacity)
+                tail -= capacity;
+            sequences[tail] = sequence;
+            ++length;
+        }
+        void evict(long sequence)
+        {
+            if(length > 0 && sequences[head] == sequence)
+            {
+                head = head+1 == sequences.length?0:head+1;
+                --length;
+            }
+        }
+        void clear()
+        {
+            head = 0;
+            length = 0;
+        }
+    }
+}
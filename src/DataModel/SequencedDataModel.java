@@ -0,0 +1,22 @@
+package DataModel;
+
+/**
+ * A <code>DataModel</code> whose elements are only ever appended at the end
+ * or removed from the front.
+ * <p>
+ * Elements are numbered in the order they were appended: the element at
+ * index <code>i</code> has the sequence number
+ * <code>getFirstSequence() + i</code>, and its value never changes while it
+ * is part of the model. Indexes over such a model, like a
+ * (@link MinMaxPyramid), can therefore be extended with the new elements and
+ * trimmed by the removed ones instead of being rebuilt after every change.
+ */
+public interface SequencedDataModel<T> extends DataModel<T>
+{
+    /**
+     * Returns the sequence number of the element at index <code>0</code>,
+     * i.e. the number of elements ever removed from the front of the model.
+     * @return the first sequence number, <code>0</code> for models that never remove elements
+     */
+    public long getFirstSequence();
+}
@@ -1,26 +1,18 @@
 package DataModel;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  *
  * @author frank
  */
-public class SimpleDataModel<T> implements DataModel<T>
+public class SimpleDataModel<T> extends AbstractDataModel<T>
 {
-    private final List<ChangeListener> change_listeners;
     private final List<? extends T> data;
     
     public SimpleDataModel(List<? extends T> data)
     {
         this.data = data;
-        change_listeners = new ArrayList<ChangeListener>();
-    }
-    @Override
-    public void addChangeListener(ChangeListener listener)
-    {
-        change_listeners.add(listener);
     }
 
     @Override
@@ -34,12 +26,6 @@ public class SimpleDataModel<T> implements DataModel<T>
         return data.isEmpty();
     }
 
-    @Override
-    public void removeChangeListener(ChangeListener listener)
-    {
-        change_listeners.remove(listener);
-    }
-
     @Override
     public int size()
     {
@@ -0,0 +1,25 @@
+package DataModel;
+
+/**
+ * An immutable <code>XYData</code> holding a single (x,y) pair.
+ */
+public class SimpleXYData implements XYData
+{
+    private final double x, y;
+    
+    public SimpleXYData(double x, double y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+    @Override
+    public double getX()
+    {
+        return x;
+    }
+    @Override
+    public double getY()
+    {
+        return y;
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 public class SimpleXYDataModel extends SimpleDataModel<XYData> implements XYDataModel<XYData>
 {
     private Range domain, range;
+    private boolean is_sorted;
     
     public SimpleXYDataModel(List<? extends XYData> data)
     {
@@ -26,8 +27,36 @@ public class SimpleXYDataModel extends SimpleDataModel<XYData> implements XYData
     {
         return range;
     }
+    @Override
+    public double getX(int index)
+    {
+        return get(index).getX();
+    }
+    @Override
+    public double getY(int index)
+    {
+        return get(index).getY();
+    }
+    @Override
+    public void copyX(int from, int to, double[] dst)
+    {
+        for(int i=from; i<to; ++i)
+            dst[i-from] = get(i).getX();
+    }
+    @Override
+    public void copyY(int from, int to, double[] dst)
+    {
+        for(int i=from; i<to; ++i)
+            dst[i-from] = get(i).getY();
+    }
+    @Override
+    public boolean isSortedByX()
+    {
+        return is_sorted;
+    }
     private void calculateRanges()
     {
+        is_sorted = true;
         if(!isEmpty())
         {
             double x_high, x_low;
@@ -38,6 +67,7 @@ public class SimpleXYDataModel extends SimpleDataModel<XYData> implements XYData
             for(int i=1; i<size(); ++i)
             {
                 item = get(i);
+                is_sorted = is_sorted && item.getX() >= x_high;
                 x_high = Math.max(x_high, item.getX());
                 x_low = Math.min(x_low, item.getX());
                 y_high = Math.max(y_high, item.getY());
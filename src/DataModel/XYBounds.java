@@ -0,0 +1,132 @@
+package DataModel;
+
+import SimpleCharts.Axis.Range;
+
+/**
+ * Accumulates the data domain, data range and sortedness of points added in
+ * order, as kept by the append-only models and the (@link XYDataFile) writer.
+ * <p>
+ * A <code>NaN</code> coordinate marks a gap in the series, so it is left out
+ * of the bounds: a <code>NaN</code> y value does not change the range and a
+ * <code>NaN</code> x value does not change the domain. Since a gap cannot be
+ * searched by x, a <code>NaN</code> x value makes the points unsorted.
+ */
+final class XYBounds
+{
+    private double x_low, x_high, y_low, y_high;
+    private boolean has_domain, has_range, is_sorted;
+
+    /**
+     * Constructs the bounds of no points.
+     */
+    XYBounds()
+    {
+        this.is_sorted = true;
+    }
+    /**
+     * Constructs a copy of other bounds.
+     * @param bounds the bounds to copy
+     */
+    XYBounds(XYBounds bounds)
+    {
+        this.x_low = bounds.x_low;
+        this.x_high = bounds.x_high;
+        this.y_low = bounds.y_low;
+        this.y_high = bounds.y_high;
+        this.has_domain = bounds.has_domain;
+        this.has_range = bounds.has_range;
+        this.is_sorted = bounds.is_sorted;
+    }
+    /**
+     * Constructs bounds computed elsewhere.
+     * @param x_low the lowest x value, <code>NaN</code> if there is no domain
+     * @param x_high the highest x value
+     * @param y_low the lowest y value, <code>NaN</code> if there is no range
+     * @param y_high the highest y value
+     * @param is_sorted whether the points are sorted by x
+     */
+    XYBounds(double x_low, double x_high, double y_low, double y_high, boolean is_sorted)
+    {
+        this.x_low = x_low;
+        this.x_high = x_high;
+        this.y_low = y_low;
+        this.y_high = y_high;
+        this.has_domain = !Double.isNaN(x_low) && !Double.isNaN(x_high);
+        this.has_range = !Double.isNaN(y_low) && !Double.isNaN(y_high);
+        this.is_sorted = is_sorted;
+    }
+    /**
+     * Extends the bounds to include a point following all points included so far.
+     * @param x the x value
+     * @param y the y value
+     */
+    void include(double x, double y)
+    {
+        if(Double.isNaN(x))
+            is_sorted = false;
+        else if(!has_domain)
+        {
+            x_low = x_high = x;
+            has_domain = true;
+        }
+        else
+        {
+            is_sorted = is_sorted && x >= x_high;
+            x_high = Math.max(x_high, x);
+            x_low = Math.min(x_low, x);
+        }
+        if(Double.isNaN(y))
+            return;
+        if(!has_range)
+        {
+            y_low = y_high = y;
+            has_range = true;
+        }
+        else
+        {
+            y_high = Math.max(y_high, y);
+            y_low = Math.min(y_low, y);
+        }
+    }
+    boolean isSorted()
+    {
+        return is_sorted;
+    }
+    /**
+     * Returns the domain of the x values.
+     * @return a new range, or <code>null</code> if no point has an x value
+     */
+    Range getDomain()
+    {
+        return has_domain?new Range(x_low, x_high):null;
+    }
+    /**
+     * Returns the range of the y values.
+     * @return a new range, or <code>null</code> if no point has a y value
+     */
+    Range getRange()
+    {
+        return has_range?new Range(y_low, y_high):null;
+    }
+    /**
+     * Returns the lowest x value. This and the other single bounds are
+     * <code>NaN</code> if there is no domain or range.
+     * @return the lowest x value
+     */
+    double getXLow()
+    {
+        return has_domain?x_low:Double.NaN;
+    }
+    double getXHigh()
+    {
+        return has_domain?x_high:Double.NaN;
+    }
+    double getYLow()
+    {
+        return has_range?y_low:Double.NaN;
+    }
+    double getYHigh()
+    {
+        return has_range?y_high:Double.NaN;
+    }
+}
@@ -0,0 +1,271 @@
+package DataModel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * A compact columnar file format for x/y series, read by {@link MappedXYDataModel}.
+ * <p>
+ * All values are little-endian. A file starts with a header of
+ * {@link #HEADER_SIZE} bytes:
+ * <pre>
+ *  offset  size  field
+ *       0     4  magic, the ASCII characters "SCXY"
+ *       4     4  format version, currently 1
+ *       8     8  number of points n
+ *      16     4  flags, bit 0 set if the x values are sorted
+ *      20     4  reserved, 0
+ *      24    32  lowest x, highest x, lowest y, highest y as doubles
+ *      56     8  reserved, 0
+ * </pre>
+ * Points with a <code>NaN</code> coordinate are gaps and are left out of the
+ * bounds, which are <code>NaN</code> if no point has an x (or y) value.
+ * followed by the x column of <code>n</code> doubles and the y column of
+ * <code>n</code> doubles. Fixed-width columns let a reader locate any point
+ * without an index, so a mapped file can be opened in constant time.
+ * <p>
+ * Files are written with a {@link Writer}, which streams the points, or with
+ * {@link #write(XYDataModel, File)}.
+ */
+public final class XYDataFile
+{
+    /** "SCXY" read as a little-endian int. */
+    public static final int MAGIC = 0x59584353;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    /** Set in the flags if the x values are monotonically non-decreasing. */
+    public static final int FLAG_SORTED = 1;
+
+    private static final int BLOCK_SIZE = 8192;
+
+    private XYDataFile()
+    {
+    }
+    /**
+     * Writes all points of a model to a file, replacing its contents.
+     * @param data the model
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(XYDataModel<?> data, File file) throws IOException
+    {
+        final Writer writer = new Writer(file);
+        try
+        {
+            final int size = data.size();
+            final double[] xs = new double[BLOCK_SIZE];
+            final double[] ys = new double[BLOCK_SIZE];
+            for(int from=0; from<size; from+=BLOCK_SIZE)
+            {
+                final int to = Math.min(size, from + BLOCK_SIZE);
+                data.copyX(from, to, xs);
+                data.copyY(from, to, ys);
+                writer.appendBatch(xs, ys, 0, to - from);
+            }
+            writer.close();
+        }
+        finally
+        {
+            // does nothing once the writer is closed
+            writer.abort();
+        }
+    }
+    /**
+     * Reads and validates the header of a file.
+     * @param channel the file
+     * @return the header, positioned at its start
+     * @throws IOException if the file is not a valid data file
+     */
+    static ByteBuffer readHeader(FileChannel channel) throws IOException
+    {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while(header.hasRemaining())
+            if(channel.read(header, header.position()) < 0)
+                throw new IOException("Truncated header");
+        header.flip();
+        if(header.getInt(0) != MAGIC)
+            throw new IOException("Not an x/y data file");
+        if(header.getInt(4) != VERSION)
+            throw new IOException("Unsupported version: "+header.getInt(4));
+        final long count = header.getLong(8);
+        if(count < 0 || channel.size() < HEADER_SIZE + 16*count)
+            throw new IOException("Truncated file, expected "+count+" points");
+        return header;
+    }
+
+    /**
+     * Streams points into a new data file. The y column is buffered in a
+     * temporary file next to the target and appended on {@link #close()},
+     * so any number of points can be written with constant memory.
+     */
+    public static final class Writer implements Closeable
+    {
+        private final File file, y_file;
+        private final FileChannel x_channel, y_channel;
+        private final ByteBuffer x_block, y_block;
+        private long count;
+        private final XYBounds bounds;
+        private boolean is_closed;
+
+        /**
+         * Creates or truncates a file and prepares it for writing.
+         * @param file the file
+         * @throws IOException if the file cannot be created
+         */
+        public Writer(File file) throws IOException
+        {
+            this.file = file;
+            // the prefix must be at least three characters long
+            this.y_file = File.createTempFile(file.getName()+".tmp", ".y", file.getAbsoluteFile().getParentFile());
+            RandomAccessFile x_raf = null;
+            try
+            {
+                x_raf = new RandomAccessFile(file, "rw");
+                x_raf.setLength(0);
+                this.x_channel = x_raf.getChannel();
+                this.y_channel = new RandomAccessFile(y_file, "rw").getChannel();
+            }
+            catch(IOException e)
+            {
+                if(x_raf != null)
+                    x_raf.close();
+                y_file.delete();
+                throw e;
+            }
+            this.x_block = ByteBuffer.allocateDirect(8*BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            this.y_block = ByteBuffer.allocateDirect(8*BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            this.bounds = new XYBounds();
+            x_channel.position(HEADER_SIZE);
+        }
+        /**
+         * Appends a point.
+         * @param x the x value
+         * @param y the y value
+         * @throws IOException if the point cannot be written
+         */
+        public void append(double x, double y) throws IOException
+        {
+            bounds.include(x, y);
+            x_block.putDouble(x);
+            y_block.putDouble(y);
+            ++count;
+            if(!x_block.hasRemaining())
+                flush();
+        }
+        /**
+         * Appends the elements <code>from</code> (inclusive) to <code>to</code>
+         * (exclusive) of the given columns.
+         * @param xs the x values
+         * @param ys the y values
+         * @param from the index of the first element to append
+         * @param to the index after the last element to append
+         * @throws IOException if the points cannot be written
+         */
+        public void appendBatch(double[] xs, double[] ys, int from, int to) throws IOException
+        {
+            if(from < 0 || from > to || to > xs.length || to > ys.length)
+                throw new IndexOutOfBoundsException("From: "+from+", To: "+to);
+            for(int i=from; i<to; ++i)
+                append(xs[i], ys[i]);
+        }
+        /**
+         * Returns the number of points written so far.
+         * @return the number of points
+         */
+        public long getCount()
+        {
+            return count;
+        }
+        /**
+         * Writes the y column and the header and closes the file. The file
+         * is deleted if it cannot be completed.
+         * @throws IOException if the file cannot be completed
+         */
+        @Override
+        public void close() throws IOException
+        {
+            if(is_closed)
+                return;
+            boolean is_complete = false;
+            try
+            {
+                flush();
+                long position = 0;
+                final long length = y_channel.size();
+                while(position < length)
+                    position += y_channel.transferTo(position, length - position, x_channel);
+
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC);
+                header.putInt(VERSION);
+                header.putLong(count);
+                header.putInt(bounds.isSorted()?FLAG_SORTED:0);
+                header.putInt(0);
+                header.putDouble(bounds.getXLow());
+                header.putDouble(bounds.getXHigh());
+                header.putDouble(bounds.getYLow());
+                header.putDouble(bounds.getYHigh());
+                header.putLong(0);
+                header.flip();
+                while(header.hasRemaining())
+                    x_channel.write(header, header.position());
+                x_channel.force(false);
+                is_complete = true;
+            }
+            finally
+            {
+                release();
+                if(!is_complete)
+                    file.delete();
+            }
+        }
+        /**
+         * Closes and deletes the file without completing it. Does nothing
+         * if the writer is closed already.
+         */
+        public void abort()
+        {
+            if(is_closed)
+                return;
+            release();
+            file.delete();
+        }
+        private void flush() throws IOException
+        {
+            x_block.flip();
+            y_block.flip();
+            while(x_block.hasRemaining())
+                x_channel.write(x_block);
+            while(y_block.hasRemaining())
+                y_channel.write(y_block);
+            x_block.clear();
+            y_block.clear();
+        }
+        private void release()
+        {
+            is_closed = true;
+            try
+            {
+                x_channel.close();
+            }
+            catch(IOException e)
+            {
+                // nothing left to do with the channel
+            }
+            try
+            {
+                y_channel.close();
+            }
+            catch(IOException e)
+            {
+                // nothing left to do with the channel
+            }
+            y_file.delete();
+        }
+    }
+}
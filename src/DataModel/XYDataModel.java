@@ -1,4 +1,3 @@
-
 package DataModel;
 
 import SimpleCharts.Axis.Range;
@@ -11,4 +10,41 @@ public interface XYDataModel<T> extends DataModel<T>
 {
     public Range getDataDomain();
     public Range getDataRange();
+    /**
+     * Returns the x value of the element at position <code>index</code>
+     * without materializing the element.
+     * @param index the position ranging from 0 to <code>size() - 1</code>
+     * @return the x value
+     */
+    public double getX(int index);
+    /**
+     * Returns the y value of the element at position <code>index</code>
+     * without materializing the element.
+     * @param index the position ranging from 0 to <code>size() - 1</code>
+     * @return the y value
+     */
+    public double getY(int index);
+    /**
+     * Copies the x values of the elements <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive) into <code>dst</code>, starting at <code>dst[0]</code>.
+     * @param from the index of the first element to copy
+     * @param to the index after the last element to copy
+     * @param dst the destination array, at least <code>to - from</code> long
+     */
+    public void copyX(int from, int to, double[] dst);
+    /**
+     * Copies the y values of the elements <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive) into <code>dst</code>, starting at <code>dst[0]</code>.
+     * @param from the index of the first element to copy
+     * @param to the index after the last element to copy
+     * @param dst the destination array, at least <code>to - from</code> long
+     */
+    public void copyY(int from, int to, double[] dst);
+    /**
+     * Checks whether the x values of the model are monotonically non-decreasing,
+     * which allows the visible part of the model to be found by binary search.
+     * @return <code>true</code> if <code>getX(i-1) &lt;= getX(i)</code> for all elements
+     * @see XYDataUtilities
+     */
+    public boolean isSortedByX();
 }
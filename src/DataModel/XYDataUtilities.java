@@ -0,0 +1,57 @@
+package DataModel;
+
+/**
+ * Static helpers for searching <code>XYDataModel</code>s.
+ */
+public final class XYDataUtilities
+{
+    private XYDataUtilities()
+    {
+    }
+    /**
+     * Returns the index of the first element in <code>[from, to)</code> whose x
+     * value is not less than <code>x</code>. The model must be sorted by x.
+     * @param data the model
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param x the x value to search for
+     * @return the index, or <code>to</code> if all x values are less than <code>x</code>
+     * @see XYDataModel#isSortedByX()
+     */
+    public static int lowerIndex(XYDataModel<?> data, int from, int to, double x)
+    {
+        int low = from, high = to;
+        while(low < high)
+        {
+            final int mid = (low + high) >>> 1;
+            if(data.getX(mid) < x)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+    /**
+     * Returns the index of the last element in <code>[from, to)</code> whose x
+     * value is not greater than <code>x</code>. The model must be sorted by x.
+     * @param data the model
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param x the x value to search for
+     * @return the index, or <code>from - 1</code> if all x values are greater than <code>x</code>
+     * @see XYDataModel#isSortedByX()
+     */
+    public static int upperIndex(XYDataModel<?> data, int from, int to, double x)
+    {
+        int low = from, high = to;
+        while(low < high)
+        {
+            final int mid = (low + high) >>> 1;
+            if(data.getX(mid) <= x)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low - 1;
+    }
+}
@@ -1,6 +1,7 @@
 package SimpleCharts.Axis;
 
 import SimpleCharts.Chart.AbstractComponent;
+import SimpleCharts.Chart.PaintLayer;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Paint;
@@ -281,6 +282,12 @@ abstract public class AbstractAxis extends AbstractComponent implements Axis
         }
     }
     
+    @Override
+    public int getPaintLayer()
+    {
+        return PaintLayer.AXES;
+    }
+    
     /**
      * Notify all registered listeners.
      */
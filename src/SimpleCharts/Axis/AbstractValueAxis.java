@@ -1,6 +1,16 @@
 package SimpleCharts.Axis;
 
 import SimpleCharts.Chart.ChartComponent;
+import SimpleCharts.Chart.RenderProbe;
+import SimpleCharts.Chart.TextMeasurer;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The base class for axes that display value data, where values are measured
@@ -27,6 +37,9 @@ abstract public class AbstractValueAxis extends AbstractAxis implements ValueAxi
     /** The default minimum auto range. */
     public static final double DEFAULT_AUTO_RANGE_MINIMUM_SIZE = 0.00000001;
     
+    /** The number of fitted tick sets remembered by each axis. */
+    private static final int TICK_CACHE_SIZE = 8;
+    
     /** The axis r. */
     private Range range;
     
@@ -74,6 +87,17 @@ abstract public class AbstractValueAxis extends AbstractAxis implements ValueAxi
      */
     private double minimum_tick_size;
     
+    /**
+     * The cached value to coordinate mapping, or <code>null</code> if it must
+     * be recomputed.
+     */
+    private AxisTransform transform;
+    
+    /**
+     * The most recently fitted tick sets, in least recently used order.
+     */
+    private final Map<TickKey, MeasuredTicks> tick_cache;
+    
     /**
      * Constructs a value axis.
      *
@@ -93,6 +117,14 @@ abstract public class AbstractValueAxis extends AbstractAxis implements ValueAxi
         range = DEFAULT_RANGE;
         minimum_auto_range_extent = DEFAULT_AUTO_RANGE_MINIMUM_SIZE;
         minimum_tick_size = 0;
+        tick_cache = new LinkedHashMap<TickKey, MeasuredTicks>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TickKey, MeasuredTicks> eldest)
+            {
+                return size() > TICK_CACHE_SIZE;
+            }
+        };
     }
     
     @Override
@@ -175,6 +207,7 @@ abstract public class AbstractValueAxis extends AbstractAxis implements ValueAxi
         if(this.range != range)
         {
             this.range = range;
+            transform = null;
             fireChangeEvent();
         }
     }
@@ -290,6 +323,8 @@ abstract public class AbstractValueAxis extends AbstractAxis implements ValueAxi
     public void setTicksFactory(ValueTickFactory factory)
     {
         ticks_factory = factory;
+        tick_cache.clear();
+        revalidate();
     }
     @Override
     public int getPosition()
@@ -299,7 +334,8 @@ abstract public class AbstractValueAxis extends AbstractAxis implements ValueAxi
     @Override
     public void setPosition(int position)
     {
-        this.position = position;;
+        this.position = position;
+        transform = null;
     }
     @Override
     public int getOrientation()
@@ -307,4 +343,196 @@ abstract public class AbstractValueAxis extends AbstractAxis implements ValueAxi
         return (position == ChartComponent.TOP || position == ChartComponent.BOTTOM)
                 ?ChartComponent.HORIZONTAL:ChartComponent.VERTICAL;
     }
+    @Override
+    public void setInverted(boolean flag)
+    {
+        super.setInverted(flag);
+        transform = null;
+    }
+    @Override
+    public void setSize(int width, int height)
+    {
+        super.setSize(width, height);
+        transform = null;
+    }
+    
+    /**
+     * Returns the mapping from data values to coordinates for the current
+     * range, size and orientation of the axis.
+     *
+     * @return The transform (never <code>null</code>).
+     */
+    public AxisTransform getTransform()
+    {
+        AxisTransform t = transform;
+        if(t == null)
+        {
+            final boolean horizontal = getOrientation()==ChartComponent.HORIZONTAL;
+            final double length = horizontal?getWidth():getHeight();
+            t = transform = new AxisTransform(range, length, isInverted() == horizontal);
+        }
+        return t;
+    }
+    
+    /**
+     * Returns the ticks for the current range that fit an axis of the given
+     * length, with their labels measured.
+     * <p>
+     * Vertical axes allow one label per <code>label_spacing</code> lines of
+     * text. Horizontal axes allow at most one label per
+     * <code>label_spacing</code> widest characters and binary search for the
+     * largest label budget whose labels fit side by side with
+     * <code>label_margin</code> between them, so only O(log n) tick sets are
+     * generated and measured.
+     * <p>
+     * Results are cached by range, length, font and spacing, so repainting an
+     * unchanged axis does not generate or measure any labels. The cache is
+     * cleared when the tick factory is replaced; call
+     * {@link #clearTickCache()} after changing the format of the factory.
+     *
+     * @param length  the length of the axis in pixels.
+     * @param font_metrics  the metrics of the label font.
+     * @param g  the graphics context the labels are measured with.
+     * @param label_spacing  the spacing of labels, in lines or characters.
+     * @param label_margin  the gap between horizontal labels in pixels.
+     * @param min_tick_size  the minimum distance between two ticks.
+     * @return The ticks (never <code>null</code>).
+     */
+    protected MeasuredTicks fitTicks(int length, FontMetrics font_metrics, Graphics g,
+            double label_spacing, double label_margin, double min_tick_size)
+    {
+        final boolean horizontal = getOrientation() == ChartComponent.HORIZONTAL;
+        final TickKey key = new TickKey(range, length, horizontal, font_metrics.getFont(),
+                font_metrics.getFontRenderContext(), label_spacing, label_margin, min_tick_size);
+        MeasuredTicks ticks = tick_cache.get(key);
+        if(ticks == null)
+        {
+            if(horizontal)
+            {
+                // fewer than two labels give no ticks, which always fit
+                int low = 1;
+                int high = (int)(length/(font_metrics.getMaxAdvance()*label_spacing)) - 1;
+                while(low < high)
+                {
+                    final int max_labels = (low + high + 1) >>> 1;
+                    final MeasuredTicks candidate = measureTicks(createTicks(max_labels, min_tick_size), font_metrics, g);
+                    if(candidate.size()*(candidate.getMaxLabelWidth() + label_margin) <= length)
+                    {
+                        low = max_labels;
+                        ticks = candidate;
+                    }
+                    else
+                        high = max_labels - 1;
+                }
+                if(ticks == null)
+                    ticks = measureTicks(createTicks(low, min_tick_size), font_metrics, g);
+            }
+            else
+            {
+                final int max_labels = (int)(length/(font_metrics.getHeight()*label_spacing));
+                ticks = measureTicks(createTicks(max_labels, min_tick_size), font_metrics, g);
+            }
+            tick_cache.put(key, ticks);
+        }
+        return ticks;
+    }
+    
+    /**
+     * Discards all cached tick sets.
+     */
+    public void clearTickCache()
+    {
+        tick_cache.clear();
+    }
+    
+    private TickSet createTicks(int max_labels, double min_tick_size)
+    {
+        final long start = RenderProbe.start();
+        final TickSet ticks = ticks_factory.createTicks(range, max_labels, min_tick_size);
+        RenderProbe.stop(RenderProbe.TICKS, start);
+        return ticks;
+    }
+    
+    private static MeasuredTicks measureTicks(TickSet ticks, FontMetrics font_metrics, Graphics g)
+    {
+        final TextMeasurer measurer = TextMeasurer.getInstance(font_metrics.getFont(), g);
+        final List<ValueTick> list = ticks.getTicks();
+        final Rectangle2D[] bounds = new Rectangle2D[list.size()];
+        final float[] ascents = new float[list.size()];
+        for(int i=0; i<bounds.length; ++i)
+        {
+            final String label = list.get(i).getLabel();
+            bounds[i] = measurer.getStringBounds(label);
+            ascents[i] = measurer.getLineMetrics(label).getAscent();
+        }
+        return new MeasuredTicks(ticks, bounds, ascents);
+    }
+    
+    @Override
+    public int valueToCoord(double value)
+    {
+        return getTransform().valueToCoord(value);
+    }
+    
+    @Override
+    public double coordToValue(int coord)
+    {
+        return getTransform().coordToValue(coord);
+    }
+    
+    @Override
+    public void valuesToCoords(double[] src, int[] dst, int from, int to)
+    {
+        getTransform().valuesToCoords(src, dst, from, to);
+    }
+    
+    /**
+     * The view state a fitted tick set depends on.
+     */
+    private static final class TickKey
+    {
+        private final Range range;
+        private final int length;
+        private final boolean horizontal;
+        private final Font font;
+        private final FontRenderContext frc;
+        private final double label_spacing, label_margin, min_tick_size;
+        
+        TickKey(Range range, int length, boolean horizontal, Font font, FontRenderContext frc,
+                double label_spacing, double label_margin, double min_tick_size)
+        {
+            this.range = range;
+            this.length = length;
+            this.horizontal = horizontal;
+            this.font = font;
+            this.frc = frc;
+            this.label_spacing = label_spacing;
+            this.label_margin = label_margin;
+            this.min_tick_size = min_tick_size;
+        }
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(!(obj instanceof TickKey))
+                return false;
+            final TickKey key = (TickKey)obj;
+            return length == key.length && horizontal == key.horizontal
+                    && range.equals(key.range) && font.equals(key.font) && frc.equals(key.frc)
+                    && Double.compare(label_spacing, key.label_spacing) == 0
+                    && Double.compare(label_margin, key.label_margin) == 0
+                    && Double.compare(min_tick_size, key.min_tick_size) == 0;
+        }
+        @Override
+        public int hashCode()
+        {
+            int hash = range.hashCode();
+            hash = 31*hash + length;
+            hash = 31*hash + (horizontal?1:0);
+            hash = 31*hash + font.hashCode();
+            hash = 31*hash + frc.hashCode();
+            final long bits = Double.doubleToLongBits(min_tick_size);
+            hash = 31*hash + (int)(bits ^ (bits >>> 32));
+            return hash;
+        }
+    }
 }
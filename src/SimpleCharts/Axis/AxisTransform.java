@@ -0,0 +1,66 @@
+package SimpleCharts.Axis;
+
+/**
+ * An immutable affine mapping between data values and axis coordinates,
+ * <code>coord = value*scale + offset</code>.
+ * <p>
+ * Axes precompute a transform whenever their range, size or orientation
+ * changes, so converting a value costs one multiply and one add.
+ */
+public final class AxisTransform
+{
+    private final double scale;
+    private final double offset;
+
+    /**
+     * Constructs the transform mapping <code>range</code> onto a length of
+     * <code>length</code> pixels.
+     * @param range the data range
+     * @param length the length of the axis in pixels
+     * @param inverted <code>true</code> if the upper bound maps to coordinate 0
+     */
+    public AxisTransform(Range range, double length, boolean inverted)
+    {
+        final double s = length/range.getExtent();
+        if(inverted)
+        {
+            scale = -s;
+            offset = length + range.getLowerBound()*s;
+        }
+        else
+        {
+            scale = s;
+            offset = -range.getLowerBound()*s;
+        }
+    }
+    public double getScale()
+    {
+        return scale;
+    }
+    public double getOffset()
+    {
+        return offset;
+    }
+    public int valueToCoord(double value)
+    {
+        return (int)(value*scale + offset);
+    }
+    public double coordToValue(int coord)
+    {
+        return (coord - offset)/scale;
+    }
+    /**
+     * Converts <code>src[from]</code> to <code>src[to-1]</code> into the
+     * corresponding elements of <code>dst</code>.
+     * @param src the data values
+     * @param dst the array receiving the coordinates
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     */
+    public void valuesToCoords(double[] src, int[] dst, int from, int to)
+    {
+        final double s = scale, o = offset;
+        for(int i=from; i<to; ++i)
+            dst[i] = (int)(src[i]*s + o);
+    }
+}
@@ -3,8 +3,6 @@ package SimpleCharts.Axis;
 import SimpleCharts.Chart.ChartComponent;
 import SimpleCharts.Chart.Utilities;
 import java.awt.*;
-import java.awt.font.LineMetrics;
-import java.awt.geom.Rectangle2D;
 import java.text.NumberFormat;
 import java.util.List;
 
@@ -24,6 +22,12 @@ public class DateAxis extends AbstractValueAxis
     /** The default value for the autoRangeIncludesZero flag. */
     public static final boolean DEFAULT_AUTO_RANGE_INCLUDES_ZERO = false;
     
+    /**
+     * @deprecated tick factories keep the state of the last generated ticks,
+     * so each axis now creates its own instance; sharing this one between axes
+     * is not thread safe.
+     */
+    @Deprecated
     public static final ValueTickFactory DEFAULT_TICK_FACTORY = new DateTickFactory();
     
     /**
@@ -60,7 +64,7 @@ public class DateAxis extends AbstractValueAxis
      */
     public DateAxis(int position, String label)
     {
-        super(position, label, DEFAULT_TICK_FACTORY);
+        super(position, label, new DateTickFactory());
         this.autoRangeIncludesZero = DEFAULT_AUTO_RANGE_INCLUDES_ZERO;
         this.numberFormatOverride = null;
         
@@ -134,35 +138,6 @@ public class DateAxis extends AbstractValueAxis
         lower -= getLowerMargin() * extent;
         setRange(new Range(lower, upper));
     }
-
-    @Override
-    public double coordToValue(int coord)
-    {
-        final Range r = getRange();
-        final double extent = r.getExtent();
-        final boolean horizontal = getOrientation()==ChartComponent.HORIZONTAL;
-        final double length = horizontal?getWidth():getHeight();
-        final double value = (coord/length)*extent;
-        final boolean inverted = (isInverted() == horizontal);
-        if(inverted)
-            return r.getUpperBound() - value;
-        else
-            return value + r.getLowerBound();
-    }
-
-    @Override
-    public int valueToCoord(double value)
-    {
-        final Range r = getRange();
-        final double extent = r.getExtent();
-        final boolean horizontal = getOrientation()==ChartComponent.HORIZONTAL;
-        final double length = horizontal?getWidth():getHeight();
-        final boolean inverted = (isInverted() == horizontal);
-        if(inverted)
-            return (int)(length - (value-r.getLowerBound())/extent*length);
-        else
-            return (int)((value - r.getLowerBound())/extent * length);
-    }
     
     @Override
     public void paintComponent(Graphics g)
@@ -180,30 +155,24 @@ public class DateAxis extends AbstractValueAxis
         
         if(getOrientation() == ChartComponent.VERTICAL)
         {
-            final int max_labels = (int)(height/(font_metrics.getHeight()*label_spacing));
-            final List<ValueTick> tick_marks = getTicksFactory().generateLabels(getRange(), max_labels, label_spacing);
-            if(tick_marks.isEmpty())
+            final MeasuredTicks ticks = fitTicks(height, font_metrics, g, label_spacing, label_margin, label_spacing);
+            if(ticks.isEmpty())
                 return;
+            final List<ValueTick> tick_marks = ticks.getTicks();
 
-            // find maximum label width
-            double max_label_width = -1;
-            for(ValueTick tick : tick_marks)
-            {
-                final Rectangle2D label_bounds = font_metrics.getStringBounds(tick.getLabel(), g);
-                max_label_width = Math.max(max_label_width, label_bounds.getWidth());
-            }
+            final double max_label_width = ticks.getMaxLabelWidth();
             if(getPosition()==ChartComponent.LEFT)
             {
                 final int axis_line_x = width-1;
                 g.drawLine(axis_line_x, 0, axis_line_x, height-1);
-                for(ValueTick tick : tick_marks)
+                for(int i=0; i<tick_marks.size(); ++i)
                 {
-                    final Rectangle2D label_bounds = font_metrics.getStringBounds(tick.getLabel(), g);
-                    final int label_x = (int)(max_label_width - label_bounds.getWidth() + label_margin);
+                    final ValueTick tick = tick_marks.get(i);
+                    final int label_x = (int)(max_label_width - ticks.getLabelWidth(i) + label_margin);
                     final int label_y = valueToCoord(tick.getValue());
                     if(label_y+descent >= height || label_y-ascent < 0)
                         continue;
-                    g.drawString(tick.getLabel(), label_x, label_y+label_bounds.getBounds().height/3);
+                    g.drawString(tick.getLabel(), label_x, label_y+ticks.getLabelHeight(i)/3);
                     g.drawLine(axis_line_x, label_y, axis_line_x-tick_mark_length, label_y);
                 }
             }
@@ -211,52 +180,38 @@ public class DateAxis extends AbstractValueAxis
             {
                 final int axis_line_x = 0;
                 g.drawLine(axis_line_x, 0, axis_line_x, height-1);
-                for(ValueTick tick : tick_marks)
+                for(int i=0; i<tick_marks.size(); ++i)
                 {
-                    final Rectangle2D label_bounds = font_metrics.getStringBounds(tick.getLabel(), g);
+                    final ValueTick tick = tick_marks.get(i);
                     final int label_x = (int)(axis_line_x + tick_mark_length + label_margin);
                     final int label_y = valueToCoord(tick.getValue());
                     if(label_y+descent >= height || label_y-ascent < 0)
                         continue;
-                    g.drawString(tick.getLabel(), label_x, label_y+label_bounds.getBounds().height/3);
+                    g.drawString(tick.getLabel(), label_x, label_y+ticks.getLabelHeight(i)/3);
                     g.drawLine(axis_line_x, label_y, axis_line_x+tick_mark_length, label_y);
                 }
             }
         }
         else // HORIZONTAL
         {
-            // find optimal number of tick marks
-            int max_labels = (int)(width/(font_metrics.getMaxAdvance()*label_spacing));
-            double max_width;
-            List<ValueTick> tick_marks;
-            do
-            {
-                max_labels--;
-                tick_marks = getTicksFactory().generateLabels(getRange(), max_labels, label_spacing);
-                max_width = 0;
-                for(ValueTick tick : tick_marks)
-                {
-                    final Rectangle2D label_bounds = font_metrics.getStringBounds(tick.getLabel(), g);
-                    max_width = Math.max(max_width, label_bounds.getWidth());
-                }
-                max_width += label_margin;
-            } while(tick_marks.size()*max_width > width);
-            if(tick_marks.isEmpty())
+            final MeasuredTicks ticks = fitTicks(width, font_metrics, g, label_spacing, label_margin, label_spacing);
+            if(ticks.isEmpty())
                 return;
+            final List<ValueTick> tick_marks = ticks.getTicks();
             
             if(getPosition()==ChartComponent.BOTTOM)
             {
                 final int axis_line_y = 0;
                 g.drawLine(0, axis_line_y, width-1, axis_line_y);
-                for(ValueTick tick : tick_marks)
+                for(int i=0; i<tick_marks.size(); ++i)
                 {
-                    final Rectangle2D label_bounds = font_metrics.getStringBounds(tick.getLabel(), g);
-                    final LineMetrics line_metrics = font_metrics.getLineMetrics(tick.getLabel(), g);
+                    final ValueTick tick = tick_marks.get(i);
+                    final double label_width = ticks.getLabelWidth(i);
                     final int label_x = valueToCoord(tick.getValue());
-                    final int label_y = (int)(axis_line_y + tick_mark_length + label_margin + line_metrics.getAscent());
-                    if(label_x+label_bounds.getWidth()/2 >= width || label_x - label_bounds.getWidth()/2< 0)
+                    final int label_y = (int)(axis_line_y + tick_mark_length + label_margin + ticks.getLabelAscent(i));
+                    if(label_x+label_width/2 >= width || label_x - label_width/2< 0)
                         continue;
-                    g.drawString(tick.getLabel(), label_x-(int)(label_bounds.getWidth()/2), label_y);
+                    g.drawString(tick.getLabel(), label_x-(int)(label_width/2), label_y);
                     g.drawLine((int)label_x, axis_line_y, (int)label_x, axis_line_y+tick_mark_length);
                 }
             }
@@ -264,15 +219,15 @@ public class DateAxis extends AbstractValueAxis
             {
                 final int axis_line_y = (int)(font_metrics.getHeight() + label_margin*2 + tick_mark_length);
                 g.drawLine(0, axis_line_y, width-1, axis_line_y);
-                for(ValueTick tick : tick_marks)
+                for(int i=0; i<tick_marks.size(); ++i)
                 {
-                    final Rectangle2D label_bounds = font_metrics.getStringBounds(tick.getLabel(), g);
-                    final LineMetrics line_metrics = font_metrics.getLineMetrics(tick.getLabel(), g);
+                    final ValueTick tick = tick_marks.get(i);
+                    final double label_width = ticks.getLabelWidth(i);
                     final int label_x = valueToCoord(tick.getValue());
-                    final int label_y = (int)(line_metrics.getAscent() + label_margin);
-                    if(label_x+label_bounds.getWidth()/2 >= width || label_x - label_bounds.getWidth()/2< 0)
+                    final int label_y = (int)(ticks.getLabelAscent(i) + label_margin);
+                    if(label_x+label_width/2 >= width || label_x - label_width/2< 0)
                         continue;
-                    g.drawString(tick.getLabel(), label_x-(int)(label_bounds.getWidth()/2), label_y);
+                    g.drawString(tick.getLabel(), label_x-(int)(label_width/2), label_y);
                     g.drawLine((int)label_x, axis_line_y, (int)label_x, axis_line_y-tick_mark_length);
                 }
             }
@@ -280,7 +235,7 @@ public class DateAxis extends AbstractValueAxis
     }
     
     @Override
-    public Dimension getPreferredSize()
+    protected Dimension computePreferredSize()
     {
         // TODO in renderer
         final Insets insets = getParent().getInsets();
@@ -291,16 +246,9 @@ public class DateAxis extends AbstractValueAxis
         
         if(getOrientation() == ChartComponent.VERTICAL)
         {
-            final int max_labels = (int)(height/(font_metrics.getHeight()*label_spacing));
-            final List<ValueTick> tick_marks = getTicksFactory().generateLabels(getRange(), max_labels, label_spacing);
-            double max_label_width = 0;
-            if(tick_marks != null)
-                for(ValueTick tick : tick_marks)
-                {
-                    final Rectangle2D label_bounds = font_metrics.getStringBounds(tick.getLabel(), getGraphics());
-                    max_label_width = Math.max(max_label_width, label_bounds.getWidth());
-                }
             final double label_gap = font_metrics.charWidth('M')*label_margin_in_m;
+            final MeasuredTicks ticks = fitTicks(height, font_metrics, getGraphics(), label_spacing, label_gap, label_spacing);
+            double max_label_width = ticks.getMaxLabelWidth();
             max_label_width += (label_gap*2 + tick_mark_length);
             return new Dimension((int)max_label_width+1, height);
         }
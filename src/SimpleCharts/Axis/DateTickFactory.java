@@ -1,6 +1,5 @@
 package SimpleCharts.Axis;
 
-import java.text.DateFormat;
 import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -18,6 +17,26 @@ public class DateTickFactory implements ValueTickFactory
     private final static long day = hour*24;
     private final static long month = day*30;
     private final static long year = month*13;
+    /** The units ticks are counted in, from finest to coarsest. */
+    private final static long[] units = {millisecond, second, minute, hour, day, month, year};
+    /** The label pattern for each unit. */
+    private final static String[] patterns = {"HH:mm:ss.SSS", "HH:mm:ss", "HH::mm", "MMM dd HH::mm", "MMM dd", "MMM yyyy", "yyyy"};
+    /** Unused formats for each unit, copied rather than compiling the pattern again. */
+    private final static Format[] formats = new Format[patterns.length];
+    static
+    {
+        for(int i=0; i<patterns.length; ++i)
+            formats[i] = new SimpleDateFormat(patterns[i]);
+    }
+    /** The label caches for each unit of every thread. */
+    private final static ThreadLocal<LabelCache[]> label_caches = new ThreadLocal<LabelCache[]>()
+    {
+        @Override
+        protected LabelCache[] initialValue()
+        {
+            return new LabelCache[formats.length];
+        }
+    };
     private Format formatter;
     private double tick_size;
     private double min_value, max_value;
@@ -62,100 +81,58 @@ public class DateTickFactory implements ValueTickFactory
     {
         if(max_labels < 2 || Double.isNaN(range.getUpperBound()) || Double.isNaN(range.getLowerBound()))
             return 0.0;
-        final double extent = range.getExtent();
-        tick_size = extent/max_labels;
-        final long unit;
-        if(tick_size < second)
-        {
-            unit = millisecond;
-            formatter = new SimpleDateFormat("HH:mm:ss.SSS");
-        }
-        else if(tick_size < minute)
-        {
-            unit = second;
-            formatter = new SimpleDateFormat("HH:mm:ss");
-        }
-        else if(tick_size < hour)
-        {
-            unit = minute;
-            formatter = new SimpleDateFormat("HH::mm");
-        }
-        else if(tick_size < day)
-        {
-            unit = hour;
-            formatter = new SimpleDateFormat("MMM dd HH::mm");
-        }
-        else if(tick_size < month)
-        {
-            unit = day;
-            formatter = new SimpleDateFormat("MMM dd");
-        }
-        else if(tick_size < year)
-        {
-            unit = month;
-            formatter = new SimpleDateFormat("MMM yyyy");
-        }
-        else
-        {
-            unit = year;
-            formatter = new SimpleDateFormat("yyyy");
-        }
+        tick_size = range.getExtent()/max_labels;
+        final int unit_index = unitIndex(tick_size);
+        final long unit = units[unit_index];
+        formatter = (Format)formats[unit_index].clone();
         return nice_tick(tick_size/unit, unit)*unit;
     }
     @Override
     public List<ValueTick> generateLabels(Range range, int max_labels, double min_tick_size)
     {
-        final List<ValueTick> result = new ArrayList<ValueTick>();
-        if(max_labels < 2 || Double.isNaN(range.getUpperBound()) || Double.isNaN(range.getLowerBound()))
-            return result;
-        final double extent = range.getExtent();
-        tick_size = extent/max_labels;
-        final long unit;
-        if(tick_size < second)
-        {
-            unit = millisecond;
-            formatter = new SimpleDateFormat("HH:mm:ss.SSS");
-        }
-        else if(tick_size < minute)
-        {
-            unit = second;
-            formatter = new SimpleDateFormat("HH:mm:ss");
-        }
-        else if(tick_size < hour)
-        {
-            unit = minute;
-            formatter = new SimpleDateFormat("HH::mm");
-        }
-        else if(tick_size < day)
-        {
-            unit = hour;
-            formatter = new SimpleDateFormat("MMM dd HH::mm");
-        }
-        else if(tick_size < month)
-        {
-            unit = day;
-            formatter = new SimpleDateFormat("MMM dd");
-        }
-        else if(tick_size < year)
+        final TickSet ticks = createTicks(range, max_labels, min_tick_size);
+        if(ticks.getTickSize() != 0)
         {
-            unit = month;
-            formatter = new SimpleDateFormat("MMM yyyy");
+            tick_size = ticks.getTickSize();
+            min_value = ticks.getMinValue();
+            max_value = ticks.getMaxValue();
+            formatter = ticks.getFormat();
         }
-        else
-        {
-            unit = year;
-            formatter = new SimpleDateFormat("yyyy");
-        }
-        tick_size = nice_tick(tick_size/unit, unit)*unit;
-        min_value = Math.floor(range.getLowerBound()/tick_size)*tick_size;
-        max_value = Math.ceil(range.getUpperBound()/tick_size)*tick_size;
+        return new ArrayList<ValueTick>(ticks.getTicks());
+    }
+    @Override
+    public TickSet createTicks(Range range, int max_labels, double min_tick_size)
+    {
+        final List<ValueTick> result = new ArrayList<ValueTick>();
+        if(max_labels < 2 || Double.isNaN(range.getUpperBound()) || Double.isNaN(range.getLowerBound()))
+            return TickSet.adopting(result, 0, 0, 0, null);
+        final double raw_size = range.getExtent()/max_labels;
+        final int unit_index = unitIndex(raw_size);
+        final long unit = units[unit_index];
+        final LabelCache[] caches = label_caches.get();
+        if(caches[unit_index] == null)
+            caches[unit_index] = new LabelCache(formats[unit_index]);
+        final LabelCache labels = caches[unit_index];
+        final double size = nice_tick(raw_size/unit, unit)*unit;
+        final double min = Math.floor(range.getLowerBound()/size)*size;
+        final double max = Math.ceil(range.getUpperBound()/size)*size;
 
-        for(double x = min_value; x <= max_value+tick_size*0.5; x += tick_size)
+        for(double x = min; x <= max+size*0.5; x += size)
         {
             if(x >= range.getLowerBound() && x < range.getUpperBound())
-                result.add(new ValueTick(formatter.format(x), x));
+                result.add(new ValueTick(labels.format(x), x));
         }
-        return result;
+        return TickSet.adopting(result, size, min, max, formats[unit_index]);
+    }
+    /**
+     * Returns the index of the unit the ticks are counted in for a tick size.
+     */
+    private static int unitIndex(double tick_size)
+    {
+        for(int i=1; i<units.length; ++i)
+            if(tick_size < units[i])
+                return i-1;
+        return units.length-1;
     }
     private double nice_tick(double tick_size, long unit)
     {
@@ -0,0 +1,49 @@
+package SimpleCharts.Axis;
+
+import java.text.Format;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Formats tick labels with a private copy of a format and remembers the most
+ * recently formatted values, so ticks that stay on screen while an axis is
+ * panned or zoomed are not formatted again.
+ * <p>
+ * A cache is confined to one thread; tick factories keep one per thread.
+ */
+final class LabelCache
+{
+    /** The number of labels remembered. */
+    private static final int CAPACITY = 256;
+    
+    private final Format format;
+    private final Map<Double, String> labels;
+    
+    /**
+     * Constructs a cache formatting with a copy of <code>source</code>.
+     * @param source the format, which is not modified
+     */
+    LabelCache(Format source)
+    {
+        this.format = (Format)source.clone();
+        this.labels = new LinkedHashMap<Double, String>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Double, String> eldest)
+            {
+                return size() > CAPACITY;
+            }
+        };
+    }
+    String format(double value)
+    {
+        final Double key = value;
+        String label = labels.get(key);
+        if(label == null)
+        {
+            label = format.format(key);
+            labels.put(key, label);
+        }
+        return label;
+    }
+}
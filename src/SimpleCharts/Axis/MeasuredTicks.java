@@ -0,0 +1,79 @@
+package SimpleCharts.Axis;
+
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+/**
+ * The tick marks chosen for an axis together with the measured bounds of
+ * their labels, so an axis can be repainted without generating or measuring
+ * the labels again.
+ */
+public final class MeasuredTicks
+{
+    private final TickSet ticks;
+    private final Rectangle2D[] label_bounds;
+    private final float[] label_ascents;
+    private final double max_label_width;
+    
+    MeasuredTicks(TickSet ticks, Rectangle2D[] label_bounds, float[] label_ascents)
+    {
+        this.ticks = ticks;
+        this.label_bounds = label_bounds;
+        this.label_ascents = label_ascents;
+        double max_width = 0;
+        for(Rectangle2D bounds : label_bounds)
+            max_width = Math.max(max_width, bounds.getWidth());
+        this.max_label_width = max_width;
+    }
+    public TickSet getTickSet()
+    {
+        return ticks;
+    }
+    public List<ValueTick> getTicks()
+    {
+        return ticks.getTicks();
+    }
+    public int size()
+    {
+        return label_bounds.length;
+    }
+    public boolean isEmpty()
+    {
+        return label_bounds.length == 0;
+    }
+    /**
+     * Get the width of the label of a tick.
+     * @param index the index of the tick
+     * @return the width in pixels
+     */
+    public double getLabelWidth(int index)
+    {
+        return label_bounds[index].getWidth();
+    }
+    /**
+     * Get the height of the label of a tick, rounded up to whole pixels.
+     * @param index the index of the tick
+     * @return the height in pixels
+     */
+    public int getLabelHeight(int index)
+    {
+        return label_bounds[index].getBounds().height;
+    }
+    /**
+     * Get the ascent of the label of a tick.
+     * @param index the index of the tick
+     * @return the ascent in pixels
+     */
+    public float getLabelAscent(int index)
+    {
+        return label_ascents[index];
+    }
+    /**
+     * Get the width of the widest label.
+     * @return the width in pixels, 0 if there are no ticks
+     */
+    public double getMaxLabelWidth()
+    {
+        return max_label_width;
+    }
+}
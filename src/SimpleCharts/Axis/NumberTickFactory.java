@@ -4,7 +4,9 @@ import java.text.DecimalFormat;
 import java.text.Format;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -12,8 +14,36 @@ import java.util.List;
  */
 public class NumberTickFactory implements ValueTickFactory
 {
+    /** The number of formats whose label caches a thread keeps. */
+    private static final int MAX_CACHED_FORMATS = 8;
+    /**
+     * The label caches of each thread, keyed by format. Equal formats share a
+     * cache, so the axes of all charts using the default format need one per
+     * thread no matter how many factories are created.
+     */
+    private final static ThreadLocal<Map<Format, LabelCache>> label_caches = new ThreadLocal<Map<Format, LabelCache>>()
+    {
+        @Override
+        protected Map<Format, LabelCache> initialValue()
+        {
+            return new LinkedHashMap<Format, LabelCache>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Format, LabelCache> eldest)
+                {
+                    return size() > MAX_CACHED_FORMATS;
+                }
+            };
+        }
+    };
     private double tick_size, min_value, max_value;
     private Format formatter;
+    /**
+     * An unused copy of the format, shared by the label caches of all threads.
+     * Copied again when the format returned by <code>getFormat()</code> is
+     * modified.
+     */
+    private volatile Format prototype;
     
     public NumberTickFactory()
     {
@@ -22,6 +52,7 @@ public class NumberTickFactory implements ValueTickFactory
     public NumberTickFactory(NumberFormat formatter)
     {
         this.formatter = formatter;
+        this.prototype = (Format)formatter.clone();
     }
     @Override
     public double getTickSize()
@@ -48,6 +79,11 @@ public class NumberTickFactory implements ValueTickFactory
     {
         return new ValueTick(createLabel(value), value);
     }
+    /**
+     * Returns the format of the labels. Changes made to it apply to the ticks
+     * created afterwards.
+     * @return the format
+     */
     @Override
     public Format getFormat()
     {
@@ -57,6 +93,7 @@ public class NumberTickFactory implements ValueTickFactory
     public void setFormat(Format format)
     {
         this.formatter = format;
+        this.prototype = (Format)format.clone();
     }
     @Override
     public double calculateTickSize(Range range, int max_labels, double min_tick_size)
@@ -69,22 +106,48 @@ public class NumberTickFactory implements ValueTickFactory
     @Override
     public List<ValueTick> generateLabels(Range range, int max_labels, double min_tick_size)
     {
+        final TickSet ticks = createTicks(range, max_labels, min_tick_size);
+        if(ticks.getTickSize() != 0)
+        {
+            tick_size = ticks.getTickSize();
+            min_value = ticks.getMinValue();
+            max_value = ticks.getMaxValue();
+        }
+        return new ArrayList<ValueTick>(ticks.getTicks());
+    }
+    @Override
+    public TickSet createTicks(Range range, int max_labels, double min_tick_size)
+    {
+        Format format = prototype;
+        final Format current = formatter;
+        if(!current.equals(format))
+        {
+            // the format was modified through getFormat()
+            format = (Format)current.clone();
+            prototype = format;
+        }
         final List<ValueTick> result = new ArrayList<ValueTick>();
         if(max_labels < 2 || Double.isNaN(range.getUpperBound()) || Double.isNaN(range.getLowerBound()))
-            return result;
+            return TickSet.adopting(result, 0, 0, 0, format);
+        // DecimalFormat is not thread safe, so every thread formats with its own copy
+        final Map<Format, LabelCache> caches = label_caches.get();
+        LabelCache labels = caches.get(format);
+        if(labels == null)
+        {
+            labels = new LabelCache(format);
+            caches.put(format, labels);
+        }
         final double r = nicenum(range.getExtent(), false);
-        tick_size = Math.max(Double.isNaN(min_tick_size)?0:min_tick_size,nicenum(r/(max_labels-1), true));
-        assert !Double.isNaN(range.getUpperBound());
-        assert !Double.isNaN(range.getLowerBound());
-        min_value = Math.floor(range.getLowerBound()/tick_size)*tick_size;
-        max_value = Math.ceil(range.getUpperBound()/tick_size)*tick_size;
-        for(double x = min_value; x <= max_value; x += tick_size)
+        final double size = Math.max(Double.isNaN(min_tick_size)?0:min_tick_size,nicenum(r/(max_labels-1), true));
+        final double min = Math.floor(range.getLowerBound()/size)*size;
+        final double max = Math.ceil(range.getUpperBound()/size)*size;
+        for(double x = min; x <= max; x += size)
         {
             if(result.isEmpty() == false && x == result.get(result.size()-1).getValue())
                 break;
-            result.add(new ValueTick(createLabel(x), x));
+            result.add(new ValueTick(labels.format(x), x));
         }
-        return result;
+        return TickSet.adopting(result, size, min, max, format);
     }
     private static double nicenum(double x, boolean round)
     {
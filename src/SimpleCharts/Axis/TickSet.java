@@ -0,0 +1,79 @@
+package SimpleCharts.Axis;
+
+import java.text.Format;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of tick marks produced by a (@link ValueTickFactory),
+ * together with the tick size, the bounds of the tick grid and the format
+ * used for the labels.
+ * <p>
+ * Instances can be shared between threads and cached.
+ */
+public final class TickSet
+{
+    private final List<ValueTick> ticks;
+    private final double tick_size;
+    private final double min_value, max_value;
+    private final Format format;
+    
+    /**
+     * Constructs a tick set.
+     * @param ticks the tick marks, copied
+     * @param tick_size the distance between two ticks
+     * @param min_value the value of the first grid line at or below the range
+     * @param max_value the value of the last grid line at or above the range
+     * @param format the format of the labels, copied (<code>null</code> permitted)
+     */
+    public TickSet(List<ValueTick> ticks, double tick_size, double min_value, double max_value, Format format)
+    {
+        this(ticks, tick_size, min_value, max_value, format, true);
+    }
+    private TickSet(List<ValueTick> ticks, double tick_size, double min_value, double max_value, Format format, boolean copy_format)
+    {
+        this.ticks = Collections.unmodifiableList(new ArrayList<ValueTick>(ticks));
+        this.tick_size = tick_size;
+        this.min_value = min_value;
+        this.max_value = max_value;
+        this.format = copy_format && format!=null?(Format)format.clone():format;
+    }
+    /**
+     * Constructs a tick set adopting <code>format</code> without copying it.
+     * The caller guarantees that the format is never modified or used for
+     * formatting.
+     */
+    static TickSet adopting(List<ValueTick> ticks, double tick_size, double min_value, double max_value, Format format)
+    {
+        return new TickSet(ticks, tick_size, min_value, max_value, format, false);
+    }
+    /**
+     * Get the tick marks.
+     * @return an unmodifiable list of the tick marks
+     */
+    public List<ValueTick> getTicks()
+    {
+        return ticks;
+    }
+    public double getTickSize()
+    {
+        return tick_size;
+    }
+    public double getMinValue()
+    {
+        return min_value;
+    }
+    public double getMaxValue()
+    {
+        return max_value;
+    }
+    /**
+     * Get the format used for the labels.
+     * @return a copy of the format, or <code>null</code> if none
+     */
+    public Format getFormat()
+    {
+        return format!=null?(Format)format.clone():null;
+    }
+}
@@ -207,6 +207,18 @@ public interface ValueAxis extends Axis
      */
     public double coordToValue(int coord);
     
+    /**
+     * Converts the data values <code>src[from]</code> to <code>src[to-1]</code>
+     * into coordinates, storing them at the same indices of <code>dst</code>.
+     *
+     * @param src  the data values.
+     * @param dst  the array receiving the coordinates.
+     * @param from  the first index, inclusive.
+     * @param to  the last index, exclusive.
+     * @see #valueToCoord(double)
+     */
+    public void valuesToCoords(double[] src, int[] dst, int from, int to);
+    
     /**
      * Centers the axis range about the specified value and notifies all registered listeners.
      *
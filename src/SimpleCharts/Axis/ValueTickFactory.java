@@ -10,7 +10,22 @@ import java.util.List;
 public interface ValueTickFactory
 {
     public double calculateTickSize(Range range, int max_labels, double min_tick_size);
+    /**
+     * Generates the tick marks for a range and records the tick size and
+     * bounds in this factory.
+     * @see #createTicks(Range, int, double)
+     */
     public List<ValueTick> generateLabels(Range range, int max_labels, double min_tick_size);
+    /**
+     * Generates the tick marks for a range without modifying this factory.
+     * The result depends only on the arguments and the format of the factory,
+     * so this method may be called concurrently and its results cached.
+     * @param range the range to cover
+     * @param max_labels the maximum number of labels
+     * @param min_tick_size the minimum distance between two ticks
+     * @return the ticks
+     */
+    public TickSet createTicks(Range range, int max_labels, double min_tick_size);
     public ValueTick getTickMark(double value);
     public double getTickSize();
     public double getMinValue();
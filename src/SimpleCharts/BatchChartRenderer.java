@@ -0,0 +1,187 @@
+package SimpleCharts;
+
+import SimpleCharts.Chart.Chart;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders many independent charts to images concurrently.
+ * <p>
+ * Each chart is built by its (@link ChartSpec) on the thread that renders it
+ * and is painted by a (@link ChartImageRenderer) private to that render, so the
+ * components, tick factories, formatters and image buffers of a render are
+ * never shared with another thread. Data models may be shared between specs
+ * as long as they are not modified while rendering.
+ */
+public class BatchChartRenderer
+{
+    /**
+     * Describes one chart image to render.
+     */
+    public interface ChartSpec
+    {
+        /**
+         * Creates the chart. Called on the rendering thread; the chart must
+         * not be shared with other specs.
+         * @return a new chart
+         */
+        public Chart createChart();
+        
+        public int getWidth();
+        
+        public int getHeight();
+    }
+    
+    private final ExecutorService executor;
+    private final boolean is_own_executor;
+    private Font font;
+    private Color background, foreground;
+    
+    /**
+     * Constructs a renderer using a fixed pool of daemon threads, one per processor.
+     */
+    public BatchChartRenderer()
+    {
+        this(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new RenderThreadFactory()), true);
+    }
+    /**
+     * Constructs a renderer using the given executor, for example a
+     * <code>ForkJoinPool</code>. The executor is not shut down by this renderer.
+     * @param executor the executor to render on
+     */
+    public BatchChartRenderer(ExecutorService executor)
+    {
+        this(executor, false);
+    }
+    private BatchChartRenderer(ExecutorService executor, boolean is_own_executor)
+    {
+        if(executor == null)
+            throw new IllegalArgumentException("Null 'executor' argument.");
+        this.executor = executor;
+        this.is_own_executor = is_own_executor;
+        this.font = ChartImageRenderer.DEFAULT_FONT;
+        this.background = Color.white;
+        this.foreground = Color.black;
+    }
+    public Font getFont()
+    {
+        return font;
+    }
+    public void setFont(Font font)
+    {
+        if(font == null)
+            throw new IllegalArgumentException("Null 'font' argument.");
+        this.font = font;
+    }
+    public Color getBackground()
+    {
+        return background;
+    }
+    /**
+     * Set the background colour of the charts.
+     * @param color the colour, or <code>null</code> for a transparent background
+     */
+    public void setBackground(Color color)
+    {
+        this.background = color;
+    }
+    public Color getForeground()
+    {
+        return foreground;
+    }
+    public void setForeground(Color color)
+    {
+        if(color == null)
+            throw new IllegalArgumentException("Null 'color' argument.");
+        this.foreground = color;
+    }
+    /**
+     * Schedules the rendering of the given charts.
+     * @param specs the charts to render
+     * @return the images, in the order of <code>specs</code>
+     */
+    public List<Future<BufferedImage>> submit(List<? extends ChartSpec> specs)
+    {
+        final List<Future<BufferedImage>> result = new ArrayList<Future<BufferedImage>>(specs.size());
+        for(ChartSpec spec : specs)
+            result.add(executor.submit(new RenderTask(spec)));
+        return result;
+    }
+    /**
+     * Renders the given charts and waits for all of them.
+     * @param specs the charts to render
+     * @return the images, in the order of <code>specs</code>
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if rendering a chart failed
+     */
+    public List<BufferedImage> renderAll(List<? extends ChartSpec> specs) throws InterruptedException, ExecutionException
+    {
+        final List<Future<BufferedImage>> futures = submit(specs);
+        final List<BufferedImage> result = new ArrayList<BufferedImage>(futures.size());
+        try
+        {
+            for(Future<BufferedImage> future : futures)
+                result.add(future.get());
+        }
+        finally
+        {
+            for(Future<BufferedImage> future : futures)
+                future.cancel(true);
+        }
+        return result;
+    }
+    /**
+     * Shuts down the thread pool if it was created by this renderer.
+     */
+    public void shutdown()
+    {
+        if(is_own_executor)
+            executor.shutdown();
+    }
+    
+    private class RenderTask implements Callable<BufferedImage>
+    {
+        private final ChartSpec spec;
+        private final Font font;
+        private final Color background, foreground;
+        
+        RenderTask(ChartSpec spec)
+        {
+            this.spec = spec;
+            this.font = BatchChartRenderer.this.font;
+            this.background = BatchChartRenderer.this.background;
+            this.foreground = BatchChartRenderer.this.foreground;
+        }
+        @Override
+        public BufferedImage call()
+        {
+            final ChartImageRenderer renderer = new ChartImageRenderer();
+            renderer.setFont(font);
+            renderer.setBackground(background);
+            renderer.setForeground(foreground);
+            return renderer.render(spec.createChart(), spec.getWidth(), spec.getHeight());
+        }
+    }
+    private static class RenderThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            final Thread thread = new Thread(r, "chart-render-"+count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
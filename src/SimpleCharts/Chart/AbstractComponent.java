@@ -3,6 +3,8 @@ package SimpleCharts.Chart;
 import SimpleCharts.Chart.Border.Border;
 import java.awt.*;
 import javax.swing.JPopupMenu;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.JToolTip;
 
 /**
@@ -11,6 +13,8 @@ import javax.swing.JToolTip;
  */
 abstract public class AbstractComponent implements Component
 {
+    private static final Logger logger = Logger.getLogger(AbstractComponent.class.getName());
+
     private Container parent;
     private int x, y;
     private int width, height;
@@ -20,6 +24,8 @@ abstract public class AbstractComponent implements Component
     private JToolTip tool_tip;
     private Dimension preferred_size;
     private boolean is_preferredsize_set;
+    /** The computed preferred size, kept until the component is invalidated. */
+    private Dimension computed_preferred_size;
     private Border border;
     private Color foreground, background;
 
@@ -41,6 +47,7 @@ abstract public class AbstractComponent implements Component
         this.font = null;
         this.tool_tip = null;
         this.preferred_size = null;
+        this.computed_preferred_size = null;
         this.border = null;
         this.foreground = null;
         this.background = null;
@@ -66,11 +73,34 @@ abstract public class AbstractComponent implements Component
     {
         return alignmentY;
     }
+    /**
+     * Returns the preferred size set by {@link #setPreferredSize(Dimension)}
+     * or else the size computed by {@link #computePreferredSize()}. The
+     * computed size is cached until the component is invalidated, so layout
+     * managers may query it repeatedly without measuring the component again.
+     * @return a copy of the preferred size, or <code>null</code>
+     */
     @Override
     public Dimension getPreferredSize()
     {
-        if(preferred_size != null)
+        if(is_preferredsize_set)
             return preferred_size;
+        if(computed_preferred_size == null)
+            computed_preferred_size = computePreferredSize();
+        if(computed_preferred_size == null)
+            return null;
+        return new Dimension(computed_preferred_size);
+    }
+    /**
+     * Computes the preferred size of this component. Called by
+     * {@link #getPreferredSize()} when no size was set and no computed size
+     * is cached. Subclasses whose preferred size depends on state other than
+     * their font, border, size and the size of their parent must call
+     * {@link #revalidate()} when that state changes.
+     * @return the preferred size, or <code>null</code>
+     */
+    protected Dimension computePreferredSize()
+    {
         return null;
     }
     @Override
@@ -225,7 +255,11 @@ abstract public class AbstractComponent implements Component
     @Override
     public void setBorder(Border border)
     {
-        this.border = border;
+        if(this.border != border)
+        {
+            this.border = border;
+            revalidate();
+        }
     }
     @Override
     public Cursor getCursor()
@@ -243,27 +277,50 @@ abstract public class AbstractComponent implements Component
     @Override
     public void setFont(Font font)
     {
-        this.font = font;
+        if(this.font != font)
+        {
+            this.font = font;
+            revalidate();
+        }
     }
     @Override
     public void repaint(int x, int y, int width, int height)
     {
-        System.out.println("restricted repaint called");
+        if(logger.isLoggable(Level.FINEST))
+            logger.log(Level.FINEST, "Repaint requested by {0} for x={1}, y={2}, width={3}, height={4}",
+                    new Object[]{getClass().getName(), x, y, width, height});
         if(parent != null)
             parent.repaint(x, y, width, height);
     }
     @Override
     public void repaint()
+    {
+        repaintLayers(getPaintLayer());
+    }
+    @Override
+    public void repaintLayers(int layers)
     {
         if(parent != null)
-            parent.repaint();
+            parent.repaintLayers(layers);
+    }
+    @Override
+    public int getPaintLayer()
+    {
+        return PaintLayer.CHROME;
     }
+    /**
+     * Marks this component and its ancestors as needing layout and drops
+     * their cached preferred sizes. Unlike {@link #invalidate()} this leaves
+     * the descendants of a container untouched; they are only laid out again
+     * if the layout of the container changes their size.
+     */
     @Override
     public void revalidate()
     {
-        if(needsLayout == false && parent != null)
-            parent.revalidate();
         needsLayout = true;
+        computed_preferred_size = null;
+        if(parent != null && parent.isValid())
+            parent.revalidate();
     }
     @Override
     public boolean isValid()
@@ -279,6 +336,7 @@ abstract public class AbstractComponent implements Component
     public void invalidate()
     {
         needsLayout = true;
+        computed_preferred_size = null;
     }
     @Override
     public JToolTip createToolTip()
@@ -342,6 +400,7 @@ abstract public class AbstractComponent implements Component
     {
         this.preferred_size = preferredSize;
         is_preferredsize_set = true;
+        revalidate();
     }
     @Override
     public boolean isPreferredSizeSet()
@@ -359,6 +418,8 @@ abstract public class AbstractComponent implements Component
     {
         if(getWidth() <= 0 || getHeight() <= 0)
             return;
+        if((PaintLayer.getActiveLayers(g) & getPaintLayer()) == 0)
+            return;
         final Graphics g2 = g.create(getX(), getY(), getWidth(), getHeight());
 //        System.out.println("Cropping component to x="+getX()+", y="+getY()+", width="+getWidth()+", height="+getHeight());
         try
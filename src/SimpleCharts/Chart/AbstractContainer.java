@@ -2,6 +2,7 @@ package SimpleCharts.Chart;
 
 import SimpleCharts.Chart.Layout.LayoutManager;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Point;
 import java.util.ArrayList;
@@ -30,6 +31,7 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
             c.getParent().remove(c);
         components.add(c);
         c.setParent(this);
+        revalidate();
         return c;
     }
 
@@ -41,6 +43,7 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
             c.getParent().remove(c);
         components.add(index, c);
         c.setParent(this);
+        revalidate();
         return c;
     }
     @Override
@@ -53,6 +56,7 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
         c.setParent(this);
         if(layoutMgr != null)
             layoutMgr.addLayoutComponent(constraint, c);
+        revalidate();
         return c;
     }
     private void checkAddToSelf(Component c)
@@ -62,21 +66,51 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
                 if(cn == c)
                     throw new IllegalArgumentException("Adding container's parent to itself");
     }
+    /**
+     * Lays out this container if it is invalid and then its invalid
+     * descendants. Containers that were neither resized nor revalidated since
+     * their last layout keep their layout, and the preferred sizes cached by
+     * their components are not recomputed.
+     */
     @Override
     public void doLayout()
     {
-        if(isValid() == false && layoutMgr != null)
+        if(isValid() == false)
         {
-            layoutMgr.layoutContainer(this);
+            if(layoutMgr != null)
+            {
+                final long start = RenderProbe.start();
+                layoutMgr.layoutContainer(this);
+                RenderProbe.stop(RenderProbe.LAYOUT, start);
+            }
             validate();
+            for(int i=0; i<getComponentCount(); ++i)
+            {
+                final Component c = getComponent(i);
+                if(!(c instanceof Container))
+                    c.validate();
+            }
         }
         for(int i=0; i<getComponentCount(); ++i)
         {
             final Component c = getComponent(i);
-            if(c instanceof Container)
+            if(c instanceof Container && !c.isValid())
                 ((Container)c).doLayout();
         }
     }
+    /**
+     * Invalidates this container if its size changes, since its layout
+     * depends on it.
+     */
+    @Override
+    public void setSize(int width, int height)
+    {
+        if(width != getWidth() || height != getHeight())
+        {
+            super.setSize(width, height);
+            invalidate();
+        }
+    }
     @Override
     public void invalidate()
     {
@@ -84,6 +118,18 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
         for(int i=0; i<components.size(); ++i)
             components.get(i).invalidate();
     }
+    /**
+     * Invalidates this container and all its descendants, since those without
+     * a font of their own inherit this one, and marks its ancestors as needing
+     * layout.
+     */
+    @Override
+    public void setFont(Font font)
+    {
+        super.setFont(font);
+        invalidate();
+        revalidate();
+    }
     @Override
     public Component findComponentAt(int x, int y)
     {
@@ -134,10 +180,8 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
         return this;
     }
     @Override
-    public Dimension getPreferredSize()
+    protected Dimension computePreferredSize()
     {
-        if(isPreferredSizeSet())
-            return super.getPreferredSize();
         if(layoutMgr != null)
             return layoutMgr.preferredLayoutSize(this);
         return null;
@@ -181,6 +225,7 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
             layoutMgr.removeLayoutComponent(c);
         c.setParent(null);
         components.remove(c);
+        revalidate();
     }
 
     @Override
@@ -207,8 +252,17 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
     public void setLayout(LayoutManager mgr)
     {
         layoutMgr = mgr;
+        revalidate();
     }
 
+    /**
+     * Repaints all layers, since the children of a container may paint into any of them.
+     */
+    @Override
+    public void repaint()
+    {
+        repaintLayers(PaintLayer.ALL);
+    }
     @Override
     public void paint(Graphics g)
     {
@@ -218,8 +272,11 @@ abstract public class AbstractContainer extends AbstractComponent implements Con
 //        System.out.println("cropping container to x="+getX()+", y="+getY()+", width="+getWidth()+", height="+getHeight());
         try
         {
-            paintComponent(g2);
-            paintBorder(g2);
+            if((PaintLayer.getActiveLayers(g2) & getPaintLayer()) != 0)
+            {
+                paintComponent(g2);
+                paintBorder(g2);
+            }
             paintChildren(g2);
         }
         finally
@@ -1,6 +1,5 @@
 package SimpleCharts.Chart;
 
-import SimpleCharts.ChartPanel;
 import SimpleCharts.Plot.Plot;
 
 /**
@@ -46,16 +45,16 @@ public interface Chart extends Component, Container
     public void setTitle(Component title);
     
     /**
-     * Get the panel for this chart.
-     * @return the (@link ChartPanel) for this chart
+     * Get the host displaying this chart.
+     * @return the (@link ChartHost) for this chart, or <code>null</code> if not set.
      */
-    public ChartPanel getChartPanel();
+    public ChartHost getChartHost();
     
     /**
-     * Set the panel  for this chart.
-     * @param panel the new (@link ChartPanel) for this chart.
+     * Set the host displaying this chart.
+     * @param host the new (@link ChartHost) for this chart.
      */
-    public void setChartPanel(ChartPanel panel);
+    public void setChartHost(ChartHost host);
     
     /**
      * Add a listener to be notified about chart change events.
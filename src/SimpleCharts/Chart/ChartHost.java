@@ -0,0 +1,77 @@
+package SimpleCharts.Chart;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import javax.swing.JPopupMenu;
+
+/**
+ * The surface a (@link Chart) is displayed on. The host supplies the default
+ * font and colours and a graphics context for measuring text, and receives the
+ * chart's repaint and layout requests.
+ *
+ * @see SimpleCharts.ChartPanel
+ * @see SimpleCharts.ChartImageRenderer
+ */
+public interface ChartHost
+{
+    /**
+     * Returns a graphics context for measuring text. The context is not
+     * necessarily one the chart is painted with.
+     * @return a graphics context with the default font set
+     */
+    public Graphics getGraphics();
+    
+    /**
+     * Get the default font for the chart.
+     * @return the font.
+     */
+    public Font getFont();
+    
+    /**
+     * Get the default background colour for the chart.
+     * @return the colour.
+     */
+    public Color getBackground();
+    
+    /**
+     * Get the default foreground colour for the chart.
+     * @return the colour.
+     */
+    public Color getForeground();
+    
+    /**
+     * Invalidates the given layers of the chart and schedules a repaint.
+     * @param layers - the (@link PaintLayer) flags of the layers that changed
+     */
+    public void repaintLayers(int layers);
+    
+    /**
+     * Invalidates the given layers of the chart and schedules a repaint of a
+     * region of the chart.
+     * @param layers - the (@link PaintLayer) flags of the layers that changed
+     * @param x - the <i>x</i> coordinate of the region
+     * @param y - the <i>y</i> coordinate of the region
+     * @param width - the <i>width</i> of the region
+     * @param height - the <i>height</i> of the region
+     */
+    public void repaintLayers(int layers, int x, int y, int width, int height);
+    
+    /**
+     * Schedules a layout of the chart.
+     */
+    public void revalidate();
+    
+    /**
+     * Scrolls the host so that the given region of the chart is visible, if supported.
+     * @param rectangle - the region in chart coordinates
+     */
+    public void scrollRectToVisible(Rectangle rectangle);
+    
+    /**
+     * Get the pop-up menu of the host.
+     * @return the menu, or <code>null</code> if none.
+     */
+    public JPopupMenu getComponentPopupMenu();
+}
@@ -1,7 +1,6 @@
 package SimpleCharts.Chart;
 
 import java.awt.Dimension;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Insets;
 import java.awt.font.LineMetrics;
@@ -36,13 +35,10 @@ public class ChartTitle extends AbstractComponent implements ChartComponent
         this.hgap = hgap;
     }
     @Override
-    public Dimension getPreferredSize()
+    protected Dimension computePreferredSize()
     {
-        if(isPreferredSizeSet())
-            return super.getPreferredSize();
         final Graphics g = getGraphics();
-        final FontMetrics fm = g.getFontMetrics();
-        final Dimension d = fm.getStringBounds(title, g).getBounds().getSize();
+        final Dimension d = TextMeasurer.getInstance(getFont(), g).getStringBounds(title).getBounds().getSize();
         final Insets insets = getInsets();
         return new Dimension(d.width+insets.left+insets.right+hgap*2,
                 d.height+insets.top+insets.bottom+vgap*2);
@@ -54,8 +50,7 @@ public class ChartTitle extends AbstractComponent implements ChartComponent
         if(getFont() != g.getFont())
             g.setFont(getFont());
         final Insets insets = getInsets();
-        final FontMetrics fm = g.getFontMetrics();
-        final LineMetrics lm = fm.getLineMetrics(title, g);
+        final LineMetrics lm = TextMeasurer.getInstance(g).getLineMetrics(title);
         g.setColor(getForeground());
         g.drawString(title, insets.left+hgap, (int)(lm.getLeading()+lm.getAscent()+insets.top+vgap));
         g.dispose();
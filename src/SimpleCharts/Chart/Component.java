@@ -295,6 +295,19 @@ public interface Component
      */
     public void repaint();
     
+    /**
+     * Repaints the given layers of the chart containing this component.
+     * @param layers - the (@link PaintLayer) flags of the layers that changed
+     */
+    public void repaintLayers(int layers);
+    
+    /**
+     * Returns the layer this component paints itself into. Children of a
+     * container may paint into other layers.
+     * @return one of the (@link PaintLayer) constants
+     */
+    public int getPaintLayer();
+    
     /**
      * Supports deferred automatic layout.
      * Adds this component to a list of components that need to be validated.
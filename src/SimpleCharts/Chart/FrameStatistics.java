@@ -0,0 +1,60 @@
+package SimpleCharts.Chart;
+
+/**
+ * The measurements of one frame taken by the (@link RenderProbe).
+ * Instances are immutable.
+ */
+public final class FrameStatistics
+{
+    private final long frame_nanos;
+    private final long[] phase_nanos;
+    private final long[] counters;
+
+    FrameStatistics(long frame_nanos, long[] phase_nanos, long[] counters)
+    {
+        this.frame_nanos = frame_nanos;
+        this.phase_nanos = phase_nanos;
+        this.counters = counters;
+    }
+    /**
+     * Returns the time from the start to the end of the frame.
+     * @return the time in nanoseconds
+     */
+    public long getFrameTime()
+    {
+        return frame_nanos;
+    }
+    /**
+     * Returns the time spent in a phase during the frame.
+     * @param phase one of the (@link RenderProbe) phase constants
+     * @return the time in nanoseconds
+     */
+    public long getPhaseTime(int phase)
+    {
+        return phase_nanos[phase];
+    }
+    /**
+     * Returns the value of a counter for the frame.
+     * @param counter one of the (@link RenderProbe) counter constants
+     * @return the count
+     */
+    public long getCount(int counter)
+    {
+        return counters[counter];
+    }
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("frame ").append(format(frame_nanos));
+        for(int i=0; i<RenderProbe.PHASES; ++i)
+            sb.append(", ").append(RenderProbe.getPhaseName(i)).append(' ').append(format(phase_nanos[i]));
+        for(int i=0; i<RenderProbe.COUNTERS; ++i)
+            sb.append(", ").append(RenderProbe.getCounterName(i)).append(' ').append(counters[i]);
+        return sb.toString();
+    }
+    private static String format(long nanos)
+    {
+        return String.format("%.2f ms", nanos/1e6);
+    }
+}
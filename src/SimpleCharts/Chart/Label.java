@@ -16,13 +16,10 @@ public class Label extends AbstractComponent
     }
 
     @Override
-    public Dimension getPreferredSize()
+    protected Dimension computePreferredSize()
     {
-        if(isPreferredSizeSet())
-            return super.getPreferredSize();
         final Graphics g = getGraphics();
-        final FontMetrics fm = g.getFontMetrics();
-        final Dimension d = fm.getStringBounds(text, g).getBounds().getSize();
+        final Dimension d = TextMeasurer.getInstance(getFont(), g).getStringBounds(text).getBounds().getSize();
         final Insets insets = getInsets();
         return new Dimension(d.width+insets.left+insets.right,
                 d.height+insets.top+insets.bottom);
@@ -34,8 +31,7 @@ public class Label extends AbstractComponent
         if(getFont() != g.getFont())
             g.setFont(getFont());
         final Insets insets = getInsets();
-        final FontMetrics fm = g.getFontMetrics();
-        final LineMetrics lm = fm.getLineMetrics(text, g);
+        final LineMetrics lm = TextMeasurer.getInstance(g).getLineMetrics(text);
         g.setColor(Color.red/*getForeground()*/);
         g.drawString(text, insets.left, (int)(lm.getLeading()+lm.getAscent()+insets.top));
         g.dispose();
@@ -46,6 +42,11 @@ public class Label extends AbstractComponent
     }
     public void setText(String text)
     {
-        this.text = text;
+        if(text == null ? this.text != null : !text.equals(this.text))
+        {
+            this.text = text;
+            revalidate();
+            repaint();
+        }
     }
 }
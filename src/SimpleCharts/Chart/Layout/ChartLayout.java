@@ -6,6 +6,8 @@ import SimpleCharts.Chart.Container;
 import SimpleCharts.Plot.Plot;
 import java.awt.Dimension;
 import java.awt.Insets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  *
@@ -13,6 +15,8 @@ import java.awt.Insets;
  */
 public class ChartLayout implements LayoutManager
 {
+    private static final Logger logger = Logger.getLogger(ChartLayout.class.getName());
+
     public ChartLayout()
     {
     }
@@ -71,7 +75,9 @@ public class ChartLayout implements LayoutManager
         final int width = container.getWidth();
         final int height = container.getHeight();
         final Insets insets = container.getInsets();
-        System.out.println("Laying out chart width="+width+", height="+height+", ncomps="+container.getComponentCount());
+        if(logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "Laying out chart width={0}, height={1}, ncomps={2}",
+                    new Object[]{width, height, container.getComponentCount()});
         
         /**
          * Find plot area boundaries
@@ -0,0 +1,70 @@
+package SimpleCharts.Chart;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * The layers a chart is painted in. Each component paints into exactly one
+ * layer (see {@link Component#getPaintLayer()}), which lets a host cache the
+ * rendering of every layer separately and repaint only the layers that changed.
+ * <p>
+ * The layers are bit flags. The layers being painted are passed down the
+ * component tree as a rendering hint on the <code>Graphics</code>; a
+ * <code>Graphics</code> without the hint paints all layers.
+ */
+public final class PaintLayer
+{
+    /** Backgrounds, borders, titles and legends. */
+    public static final int CHROME = 1;
+    /** Axis lines, tick marks and labels. */
+    public static final int AXES = 2;
+    /** Plotted data. */
+    public static final int DATA = 4;
+    /** Transient decorations, such as crosshairs, repainted on every frame. */
+    public static final int OVERLAY = 8;
+    /** All layers that can be cached between frames. */
+    public static final int CACHED = CHROME | AXES | DATA;
+    /** All layers. */
+    public static final int ALL = CACHED | OVERLAY;
+
+    /**
+     * The rendering hint holding the layers being painted, as an <code>Integer</code>.
+     */
+    public static final RenderingHints.Key KEY = new RenderingHints.Key(0)
+    {
+        @Override
+        public boolean isCompatibleValue(Object value)
+        {
+            return value instanceof Integer;
+        }
+    };
+
+    private PaintLayer()
+    {
+    }
+    /**
+     * Returns the layers to paint with the given graphics context.
+     * @param g the graphics context
+     * @return the layer flags, {@link #ALL} if none were set
+     */
+    public static int getActiveLayers(Graphics g)
+    {
+        if(g instanceof Graphics2D)
+        {
+            final Object layers = ((Graphics2D)g).getRenderingHint(KEY);
+            if(layers instanceof Integer)
+                return (Integer)layers;
+        }
+        return ALL;
+    }
+    /**
+     * Restricts painting with the given graphics context to some layers.
+     * @param g the graphics context
+     * @param layers the layer flags
+     */
+    public static void setActiveLayers(Graphics2D g, int layers)
+    {
+        g.setRenderingHint(KEY, Integer.valueOf(layers));
+    }
+}
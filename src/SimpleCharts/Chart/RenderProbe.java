@@ -0,0 +1,332 @@
+package SimpleCharts.Chart;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Measures where the time of a rendered frame goes.
+ * <p>
+ * The render pipeline brackets its phases with {@link #start()} and
+ * {@link #stop(int, long)} and reports point counts with
+ * {@link #count(int, long)}. Hosts bracket every frame with
+ * {@link #beginFrame()} and {@link #endFrame()}; the measurements of a frame
+ * are collected per thread and, at its end, published as a
+ * {@link FrameStatistics} to the registered listeners, to the totals exposed
+ * through JMX (see {@link #registerMBean()}) and to {@link #getLastFrame()}.
+ * <p>
+ * The probe is disabled by default. While disabled every hook costs one
+ * read of a volatile flag and neither reads the clock nor allocates. Phase
+ * times are inclusive: e.g. the layout time contains the tick generation and
+ * text measurement done to compute preferred sizes.
+ */
+public final class RenderProbe
+{
+    /** Laying out containers. */
+    public static final int LAYOUT = 0;
+    /** Generating ticks and formatting their labels. */
+    public static final int TICKS = 1;
+    /** Measuring text. */
+    public static final int TEXT = 2;
+    /** Selecting, downsampling and transforming the points to draw. */
+    public static final int DATA = 3;
+    /** Drawing the points with Java2D. */
+    public static final int DRAW = 4;
+    /** The number of phases. */
+    public static final int PHASES = 5;
+
+    /** The number of points drawn. */
+    public static final int POINTS_DRAWN = 0;
+    /** The number of visible points removed by downsampling. */
+    public static final int POINTS_DECIMATED = 1;
+    /** The number of counters. */
+    public static final int COUNTERS = 2;
+
+    private static final String[] PHASE_NAMES = {"layout", "ticks", "text", "data", "draw"};
+    private static final String[] COUNTER_NAMES = {"points drawn", "points decimated"};
+
+    /** The name of the MBean registered by {@link #registerMBean()}. */
+    public static final String MBEAN_NAME = "SimpleCharts:type=RenderProbe";
+
+    private static volatile boolean is_enabled = false;
+    /** Incremented whenever the probe is enabled, to discard frames begun before. */
+    private static volatile int generation = 0;
+    private static volatile FrameStatistics last_frame;
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+    private static final Totals totals = new Totals();
+    private static final ThreadLocal<Frame> frames = new ThreadLocal<Frame>()
+    {
+        @Override
+        protected Frame initialValue()
+        {
+            return new Frame();
+        }
+    };
+
+    private RenderProbe()
+    {
+    }
+    public static boolean isEnabled()
+    {
+        return is_enabled;
+    }
+    /**
+     * Enables or disables the probe. Frames in progress when the probe is
+     * enabled are not reported.
+     * @param flag <code>true</code> to take measurements
+     */
+    public static synchronized void setEnabled(boolean flag)
+    {
+        if(flag && !is_enabled)
+            ++generation;
+        is_enabled = flag;
+    }
+    public static String getPhaseName(int phase)
+    {
+        return PHASE_NAMES[phase];
+    }
+    public static String getCounterName(int counter)
+    {
+        return COUNTER_NAMES[counter];
+    }
+    /**
+     * Adds a listener notified at the end of every frame, on the thread that
+     * rendered it.
+     * @param listener the listener
+     */
+    public static void addListener(Listener listener)
+    {
+        listeners.add(listener);
+    }
+    public static void removeListener(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+    /**
+     * Returns the statistics of the frame that ended last on any thread.
+     * @return the statistics, or <code>null</code> if no frame was measured
+     */
+    public static FrameStatistics getLastFrame()
+    {
+        return last_frame;
+    }
+    /**
+     * Registers the totals of the probe with the platform MBean server under
+     * {@link #MBEAN_NAME}. Does nothing if they are registered already.
+     */
+    public static void registerMBean()
+    {
+        try
+        {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(MBEAN_NAME);
+            if(!server.isRegistered(name))
+                server.registerMBean(totals, name);
+        }
+        catch(InstanceAlreadyExistsException e)
+        {
+            // registered concurrently
+        }
+        catch(JMException e)
+        {
+            throw new IllegalStateException("Cannot register "+MBEAN_NAME, e);
+        }
+    }
+    /**
+     * Starts a frame on the current thread. Frames may nest, e.g. when a
+     * chart is rendered to an image while a panel is painted; only the
+     * outermost frame is reported.
+     */
+    public static void beginFrame()
+    {
+        if(!is_enabled)
+            return;
+        final Frame frame = frames.get();
+        if(frame.generation != generation)
+        {
+            frame.generation = generation;
+            frame.depth = 0;
+        }
+        if(frame.depth++ == 0)
+            frame.reset(System.nanoTime());
+    }
+    /**
+     * Ends the frame started by the matching {@link #beginFrame()} on the
+     * current thread and publishes its statistics.
+     */
+    public static void endFrame()
+    {
+        if(!is_enabled)
+            return;
+        final Frame frame = frames.get();
+        if(frame.generation != generation || frame.depth == 0 || --frame.depth > 0)
+            return;
+        final FrameStatistics statistics = frame.toStatistics(System.nanoTime());
+        last_frame = statistics;
+        totals.add(statistics);
+        for(Listener listener : listeners)
+            listener.frameRendered(statistics);
+    }
+    /**
+     * Starts timing a phase.
+     * @return the start time to pass to {@link #stop(int, long)}, or
+     * <code>0</code> if the probe is disabled
+     */
+    public static long start()
+    {
+        return is_enabled?System.nanoTime():0;
+    }
+    /**
+     * Adds the time elapsed since {@link #start()} to a phase of the current frame.
+     * @param phase one of the phase constants
+     * @param start the value returned by {@link #start()}
+     */
+    public static void stop(int phase, long start)
+    {
+        if(start != 0 && is_enabled)
+            frames.get().phase_nanos[phase] += System.nanoTime() - start;
+    }
+    /**
+     * Adds to a counter of the current frame.
+     * @param counter one of the counter constants
+     * @param amount the amount to add
+     */
+    public static void count(int counter, long amount)
+    {
+        if(is_enabled)
+            frames.get().counters[counter] += amount;
+    }
+
+    /**
+     * Receives the statistics of every measured frame.
+     */
+    public interface Listener
+    {
+        /**
+         * Invoked at the end of every frame while the probe is enabled.
+         * @param frame the statistics of the frame
+         */
+        public void frameRendered(FrameStatistics frame);
+    }
+
+    /**
+     * The measurements of the frame in progress on one thread.
+     */
+    private static final class Frame
+    {
+        private final long[] phase_nanos = new long[PHASES];
+        private final long[] counters = new long[COUNTERS];
+        private long start_time;
+        private int depth, generation;
+
+        void reset(long now)
+        {
+            Arrays.fill(phase_nanos, 0);
+            Arrays.fill(counters, 0);
+            start_time = now;
+        }
+        FrameStatistics toStatistics(long now)
+        {
+            return new FrameStatistics(now - start_time, phase_nanos.clone(), counters.clone());
+        }
+    }
+
+    /**
+     * The totals over all frames, exposed through JMX.
+     */
+    private static final class Totals implements RenderProbeMXBean
+    {
+        private final long[] phase_nanos = new long[PHASES];
+        private final long[] counters = new long[COUNTERS];
+        private long frame_count, frame_nanos, max_frame_nanos;
+
+        synchronized void add(FrameStatistics frame)
+        {
+            ++frame_count;
+            frame_nanos += frame.getFrameTime();
+            max_frame_nanos = Math.max(max_frame_nanos, frame.getFrameTime());
+            for(int i=0; i<PHASES; ++i)
+                phase_nanos[i] += frame.getPhaseTime(i);
+            for(int i=0; i<COUNTERS; ++i)
+                counters[i] += frame.getCount(i);
+        }
+        private double average(long nanos)
+        {
+            return frame_count > 0?nanos/1e6/frame_count:0;
+        }
+        @Override
+        public boolean isEnabled()
+        {
+            return RenderProbe.isEnabled();
+        }
+        @Override
+        public void setEnabled(boolean flag)
+        {
+            RenderProbe.setEnabled(flag);
+        }
+        @Override
+        public synchronized long getFrameCount()
+        {
+            return frame_count;
+        }
+        @Override
+        public synchronized double getAverageFrameTime()
+        {
+            return average(frame_nanos);
+        }
+        @Override
+        public synchronized double getMaxFrameTime()
+        {
+            return max_frame_nanos/1e6;
+        }
+        @Override
+        public synchronized double getAverageLayoutTime()
+        {
+            return average(phase_nanos[LAYOUT]);
+        }
+        @Override
+        public synchronized double getAverageTickTime()
+        {
+            return average(phase_nanos[TICKS]);
+        }
+        @Override
+        public synchronized double getAverageTextTime()
+        {
+            return average(phase_nanos[TEXT]);
+        }
+        @Override
+        public synchronized double getAverageDataTime()
+        {
+            return average(phase_nanos[DATA]);
+        }
+        @Override
+        public synchronized double getAverageDrawTime()
+        {
+            return average(phase_nanos[DRAW]);
+        }
+        @Override
+        public synchronized long getPointsDrawn()
+        {
+            return counters[POINTS_DRAWN];
+        }
+        @Override
+        public synchronized long getPointsDecimated()
+        {
+            return counters[POINTS_DECIMATED];
+        }
+        @Override
+        public synchronized void reset()
+        {
+            Arrays.fill(phase_nanos, 0);
+            Arrays.fill(counters, 0);
+            frame_count = 0;
+            frame_nanos = 0;
+            max_frame_nanos = 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package SimpleCharts.Chart;
+
+/**
+ * The management interface of the (@link RenderProbe) totals. Times are
+ * in milliseconds and averaged over all frames measured since the last
+ * reset.
+ */
+public interface RenderProbeMXBean
+{
+    public boolean isEnabled();
+    public void setEnabled(boolean flag);
+    public long getFrameCount();
+    public double getAverageFrameTime();
+    public double getMaxFrameTime();
+    public double getAverageLayoutTime();
+    public double getAverageTickTime();
+    public double getAverageTextTime();
+    public double getAverageDataTime();
+    public double getAverageDrawTime();
+    public long getPointsDrawn();
+    public long getPointsDecimated();
+    /**
+     * Clears all totals.
+     */
+    public void reset();
+}
@@ -1,7 +1,6 @@
 package SimpleCharts.Chart;
 
 import SimpleCharts.Chart.Layout.ChartLayout;
-import SimpleCharts.ChartPanel;
 import SimpleCharts.Plot.Plot;
 import java.awt.Color;
 import java.awt.Font;
@@ -9,6 +8,8 @@ import java.awt.Graphics;
 import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.JPopupMenu;
 
 /**
@@ -17,7 +18,9 @@ import javax.swing.JPopupMenu;
  */
 public class SimpleChart extends AbstractContainer implements Chart, Plot.ChangeListener
 {
-    private ChartPanel panel;
+    private static final Logger logger = Logger.getLogger(SimpleChart.class.getName());
+
+    private ChartHost host;
     private Plot plot;
     private Container legend;
     private Component title;
@@ -63,10 +66,10 @@ public class SimpleChart extends AbstractContainer implements Chart, Plot.Change
     {
         if(this.plot != null)
         {
-            plot.removeChangeListener(this);
+            this.plot.removeChangeListener(this);
             if(this.plot instanceof LegendItemSource && legend != null)
             {
-                final Component[] legend_items = plot.getLegendItems();
+                final Component[] legend_items = this.plot.getLegendItems();
                 for(Component c : legend_items)
                     legend.remove(c);
             }
@@ -76,6 +79,7 @@ public class SimpleChart extends AbstractContainer implements Chart, Plot.Change
         if(plot != null)
         {
             add(plot);
+            plot.addChangeListener(this);
             getLegendItems();
         }
     }
@@ -123,71 +127,84 @@ public class SimpleChart extends AbstractContainer implements Chart, Plot.Change
             add(title);
     }
     @Override
-    public ChartPanel getChartPanel()
+    public ChartHost getChartHost()
     {
-        return panel;
+        return host;
     }
     @Override
-    public void setChartPanel(ChartPanel panel)
+    public void setChartHost(ChartHost host)
     {
-        this.panel = panel;
+        this.host = host;
     }
     @Override
     public Graphics getGraphics()
     {
-        return panel!=null?panel.getGraphics():null;
+        return host!=null?host.getGraphics():null;
     }
     @Override
     public Font getFont()
     {
-        return panel!=null?panel.getFont():null;
+        return host!=null?host.getFont():null;
     }
     @Override
     public Color getBackground()
     {
-        return panel!=null?panel.getBackground():null;
+        return host!=null?host.getBackground():null;
     }
     @Override
     public Color getForeground()
     {
-        return panel!=null?panel.getForeground():null;
+        return host!=null?host.getForeground():null;
     }
     @Override
     public void scrollRectToVisible(Rectangle rectangle)
     {
-        if(panel != null)
-            panel.scrollRectToVisible(rectangle);
+        if(host != null)
+            host.scrollRectToVisible(rectangle);
     }
     @Override
     public JPopupMenu getComponentPopupMenu()
     {
-        return panel!=null?panel.getComponentPopupMenu():null;
+        return host!=null?host.getComponentPopupMenu():null;
     }
     @Override
     public void repaint()
     {
-        if(panel != null)
+        if(host != null)
         {
-            System.out.println("panel repaint requested");
-            panel.repaint();
+            if(logger.isLoggable(Level.FINER))
+                logger.finer("Chart repaint requested");
+            host.repaintLayers(PaintLayer.ALL);
         }
     }
     @Override
     public void repaint(int x, int y, int width, int height)
     {
-        if(panel != null)
+        if(host != null)
         {
-            System.out.println("selective repaint called");
-            panel.repaint(x, y, width, height);
+            if(logger.isLoggable(Level.FINER))
+                logger.log(Level.FINER, "Chart repaint requested for x={0}, y={1}, width={2}, height={3}",
+                        new Object[]{x, y, width, height});
+            host.repaintLayers(PaintLayer.ALL, x, y, width, height);
         }
     }
     @Override
+    public void repaintLayers(int layers)
+    {
+        if(host != null)
+            host.repaintLayers(layers);
+    }
+    @Override
     public void revalidate()
     {
-        if(isValid() == false && panel != null)
+        final boolean was_valid = isValid();
+        super.revalidate();
+        if(was_valid && host != null)
         {
-            System.out.println("panel revalidate called");
-            panel.revalidate();
+            if(logger.isLoggable(Level.FINER))
+                logger.finer("Chart revalidate requested");
+            host.revalidate();
+            host.repaintLayers(PaintLayer.ALL);
         }
     }
     @Override
@@ -209,6 +226,6 @@ public class SimpleChart extends AbstractContainer implements Chart, Plot.Change
     @Override
     public void dataModelChanged(Plot plot)
     {
-        
+        repaintLayers(PaintLayer.AXES | PaintLayer.DATA);
     }
 }
@@ -0,0 +1,249 @@
+package SimpleCharts.Chart;
+
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures text for one font and font render context, returning the same
+ * results as <code>FontMetrics.getStringBounds</code> and
+ * <code>FontMetrics.getLineMetrics</code> without running the text layout
+ * on every call.
+ * <p>
+ * Strings made of Latin-1 characters in a font without layout attributes
+ * (kerning, ligatures, tracking) are measured by adding glyph advances from a
+ * table filled on first use. Other strings are measured by the font and the
+ * bounds and line metrics of the most recently measured ones are remembered.
+ * <p>
+ * Measurers are shared and thread safe.
+ */
+public final class TextMeasurer
+{
+    /** The number of complex strings remembered per measurer. */
+    private static final int CACHE_SIZE = 512;
+    /** Clear the shared measurers when there are more than this many. */
+    private static final int MAX_MEASURERS = 64;
+    private static final FontRenderContext DEFAULT_FRC = new FontRenderContext(null, false, false);
+    private static final Map<Key, TextMeasurer> measurers = new ConcurrentHashMap<Key, TextMeasurer>();
+    
+    private final Font font;
+    private final FontRenderContext frc;
+    private final boolean is_simple_font;
+    /**
+     * The advance of every Latin-1 character, <code>NaN</code> until measured.
+     * Races only ever store the same value, so the table is not locked.
+     */
+    private final float[] advances;
+    private final LineMetrics line_metrics;
+    private final float ascent, descent, leading;
+    private final Map<String, Measurement> measurements;
+    
+    private TextMeasurer(Font font, FontRenderContext frc)
+    {
+        this.font = font;
+        this.frc = frc;
+        this.is_simple_font = !font.hasLayoutAttributes();
+        this.advances = new float[256];
+        Arrays.fill(advances, Float.NaN);
+        this.line_metrics = font.getLineMetrics("", frc);
+        this.ascent = line_metrics.getAscent();
+        this.descent = line_metrics.getDescent();
+        this.leading = line_metrics.getLeading();
+        this.measurements = new LinkedHashMap<String, Measurement>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Measurement> eldest)
+            {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+    /**
+     * Returns the measurer for a font and font render context.
+     * @param font the font
+     * @param frc the font render context
+     * @return the shared measurer
+     */
+    public static TextMeasurer getInstance(Font font, FontRenderContext frc)
+    {
+        final Key key = new Key(font, frc);
+        TextMeasurer measurer = measurers.get(key);
+        if(measurer == null)
+        {
+            if(measurers.size() >= MAX_MEASURERS)
+                measurers.clear();
+            measurer = new TextMeasurer(font, frc);
+            measurers.put(key, measurer);
+        }
+        return measurer;
+    }
+    /**
+     * Returns the measurer for a font and the font render context of a
+     * graphics context, matching <code>FontMetrics.getStringBounds(String, Graphics)</code>.
+     * @param font the font
+     * @param g the graphics context
+     * @return the shared measurer
+     */
+    public static TextMeasurer getInstance(Font font, Graphics g)
+    {
+        return getInstance(font, g instanceof Graphics2D?((Graphics2D)g).getFontRenderContext():DEFAULT_FRC);
+    }
+    /**
+     * Returns the measurer for the current font of a graphics context.
+     * @param g the graphics context
+     * @return the shared measurer
+     */
+    public static TextMeasurer getInstance(Graphics g)
+    {
+        return getInstance(g.getFont(), g);
+    }
+    public Font getFont()
+    {
+        return font;
+    }
+    /**
+     * Returns the advance width of a string.
+     * @param text the string
+     * @return the width
+     */
+    public float stringWidth(String text)
+    {
+        final long start = RenderProbe.start();
+        final float width = width(text);
+        RenderProbe.stop(RenderProbe.TEXT, start);
+        return width;
+    }
+    private float width(String text)
+    {
+        if(is_simple_font)
+        {
+            float width = 0;
+            final int length = text.length();
+            int i = 0;
+            for(; i<length; ++i)
+            {
+                final char c = text.charAt(i);
+                if(c >= 256)
+                    break;
+                float advance = advances[c];
+                if(advance != advance)
+                    advance = advances[c] = (float)font.getStringBounds(new char[]{c}, 0, 1, frc).getWidth();
+                width += advance;
+            }
+            if(i == length)
+                return width;
+        }
+        return (float)measure(text).bounds.getWidth();
+    }
+    /**
+     * Returns the remembered measurement of a complex string, measuring it
+     * with the font if necessary.
+     */
+    private Measurement measure(String text)
+    {
+        synchronized(measurements)
+        {
+            Measurement measurement = measurements.get(text);
+            if(measurement == null)
+            {
+                measurement = new Measurement(font.getStringBounds(text, frc), font.getLineMetrics(text, frc));
+                measurements.put(text, measurement);
+            }
+            return measurement;
+        }
+    }
+    /**
+     * Returns the logical bounds of a string, as
+     * <code>FontMetrics.getStringBounds</code> does.
+     * @param text the string
+     * @return a new rectangle
+     */
+    public Rectangle2D getStringBounds(String text)
+    {
+        final long start = RenderProbe.start();
+        final Rectangle2D bounds;
+        if(!isSimpleText(text))
+            bounds = (Rectangle2D)measure(text).bounds.clone();
+        else
+            bounds = new Rectangle2D.Float(0, -ascent, width(text), ascent + descent + leading);
+        RenderProbe.stop(RenderProbe.TEXT, start);
+        return bounds;
+    }
+    /**
+     * Returns the line metrics of a string, as
+     * <code>FontMetrics.getLineMetrics</code> does.
+     * @param text the string
+     * @return the line metrics, which must not be modified
+     */
+    public LineMetrics getLineMetrics(String text)
+    {
+        if(!isSimpleText(text))
+            return measure(text).line_metrics;
+        return line_metrics;
+    }
+    public float getAscent()
+    {
+        return ascent;
+    }
+    public float getDescent()
+    {
+        return descent;
+    }
+    public float getLeading()
+    {
+        return leading;
+    }
+    private boolean isSimpleText(String text)
+    {
+        if(!is_simple_font)
+            return false;
+        for(int i=0; i<text.length(); ++i)
+            if(text.charAt(i) >= 256)
+                return false;
+        return true;
+    }
+    
+    private static final class Measurement
+    {
+        /** Copied before being returned, since rectangles are mutable. */
+        private final Rectangle2D bounds;
+        private final LineMetrics line_metrics;
+        
+        Measurement(Rectangle2D bounds, LineMetrics line_metrics)
+        {
+            this.bounds = bounds;
+            this.line_metrics = line_metrics;
+        }
+    }
+    private static final class Key
+    {
+        private final Font font;
+        private final FontRenderContext frc;
+        
+        Key(Font font, FontRenderContext frc)
+        {
+            this.font = font;
+            this.frc = frc;
+        }
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(!(obj instanceof Key))
+                return false;
+            final Key key = (Key)obj;
+            return font.equals(key.font) && frc.equals(key.frc);
+        }
+        @Override
+        public int hashCode()
+        {
+            return 31*font.hashCode() + frc.hashCode();
+        }
+    }
+}
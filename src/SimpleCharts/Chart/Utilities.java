@@ -12,13 +12,21 @@ import java.util.Date;
  */
 public class Utilities
 {
-    private final static DateFormat date_format = new SimpleDateFormat("yyyyMMdd HH:mm:ss.SSS");
+    /** <code>SimpleDateFormat</code> is not thread safe, so each thread gets its own. */
+    private final static ThreadLocal<DateFormat> date_format = new ThreadLocal<DateFormat>()
+    {
+        @Override
+        protected DateFormat initialValue()
+        {
+            return new SimpleDateFormat("yyyyMMdd HH:mm:ss.SSS");
+        }
+    };
     public static Color transparent(Color c, int alpha)
     {
         return new Color(c.getRed(), c.getGreen(), c.getBlue(), alpha);
     }
     public static String formatDate(double time)
     {
-        return date_format.format(new Date((long)time));
+        return date_format.get().format(new Date((long)time));
     }
 }
@@ -0,0 +1,197 @@
+package SimpleCharts;
+
+import SimpleCharts.Chart.Chart;
+import SimpleCharts.Chart.ChartHost;
+import SimpleCharts.Chart.RenderProbe;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.imageio.ImageIO;
+import javax.swing.JPopupMenu;
+
+/**
+ * Renders a (@link Chart) into an image without a Swing component, for
+ * example to generate chart images on a server running with
+ * <code>java.awt.headless=true</code>.
+ * <p>
+ * The renderer acts as the chart's (@link ChartHost) while it paints: it
+ * supplies the default font and colours, and text is measured with a
+ * graphics context of a private scratch image. Repaint and layout requests
+ * from the chart are ignored, since every render lays out and paints the
+ * whole chart.
+ * <p>
+ * A renderer is not thread safe, and a chart must not be rendered by two
+ * threads at once.
+ */
+public class ChartImageRenderer implements ChartHost
+{
+    /** The default font, the same as the default Swing panel font. */
+    public static final Font DEFAULT_FONT = new Font("Dialog", Font.PLAIN, 12);
+    
+    private Font font;
+    private Color background, foreground;
+    private final BufferedImage scratch;
+    
+    /**
+     * Constructs a renderer painting black on white with the default font.
+     */
+    public ChartImageRenderer()
+    {
+        font = DEFAULT_FONT;
+        background = Color.white;
+        foreground = Color.black;
+        scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    }
+    @Override
+    public Font getFont()
+    {
+        return font;
+    }
+    public void setFont(Font font)
+    {
+        if(font == null)
+            throw new IllegalArgumentException("Null 'font' argument.");
+        this.font = font;
+    }
+    @Override
+    public Color getBackground()
+    {
+        return background;
+    }
+    /**
+     * Set the background colour of the chart.
+     * @param color the colour, or <code>null</code> for a transparent background
+     */
+    public void setBackground(Color color)
+    {
+        this.background = color;
+    }
+    @Override
+    public Color getForeground()
+    {
+        return foreground;
+    }
+    public void setForeground(Color color)
+    {
+        if(color == null)
+            throw new IllegalArgumentException("Null 'color' argument.");
+        this.foreground = color;
+    }
+    /**
+     * Renders a chart into a new image.
+     * @param chart the chart
+     * @param width the width of the image
+     * @param height the height of the image
+     * @return the image
+     */
+    public BufferedImage render(Chart chart, int width, int height)
+    {
+        if(width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Non-positive image size: "+width+"x"+height);
+        final BufferedImage image = new BufferedImage(width, height,
+                background != null && background.getAlpha() == 255
+                ?BufferedImage.TYPE_INT_RGB:BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        try
+        {
+            render(chart, g, width, height);
+        }
+        finally
+        {
+            g.dispose();
+        }
+        return image;
+    }
+    /**
+     * Lays out a chart for the given size and paints it with a graphics context.
+     * @param chart the chart
+     * @param g the graphics context
+     * @param width the width of the chart
+     * @param height the height of the chart
+     */
+    public void render(Chart chart, Graphics2D g, int width, int height)
+    {
+        final ChartHost previous = chart.getChartHost();
+        chart.setChartHost(this);
+        RenderProbe.beginFrame();
+        try
+        {
+            if(background != null)
+            {
+                g.setColor(background);
+                g.fillRect(0, 0, width, height);
+            }
+            g.setFont(font);
+            g.setColor(foreground);
+            chart.setBounds(0, 0, width, height);
+            chart.invalidate();
+            chart.doLayout();
+            chart.paint(g);
+        }
+        finally
+        {
+            RenderProbe.endFrame();
+            chart.setChartHost(previous);
+        }
+    }
+    /**
+     * Renders a chart and writes it in PNG format.
+     * @param chart the chart
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param out the stream to write to, which is not closed
+     * @throws IOException if writing fails
+     */
+    public void writePNG(Chart chart, int width, int height, OutputStream out) throws IOException
+    {
+        if(!ImageIO.write(render(chart, width, height), "png", out))
+            throw new IOException("No PNG writer available");
+    }
+    /**
+     * Renders a chart and writes it to a PNG file.
+     * @param chart the chart
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param file the file to write
+     * @throws IOException if writing fails
+     */
+    public void writePNG(Chart chart, int width, int height, File file) throws IOException
+    {
+        if(!ImageIO.write(render(chart, width, height), "png", file))
+            throw new IOException("No PNG writer available");
+    }
+    @Override
+    public Graphics getGraphics()
+    {
+        final Graphics g = scratch.createGraphics();
+        g.setFont(font);
+        return g;
+    }
+    @Override
+    public void repaintLayers(int layers)
+    {
+    }
+    @Override
+    public void repaintLayers(int layers, int x, int y, int width, int height)
+    {
+    }
+    @Override
+    public void revalidate()
+    {
+    }
+    @Override
+    public void scrollRectToVisible(Rectangle rectangle)
+    {
+    }
+    @Override
+    public JPopupMenu getComponentPopupMenu()
+    {
+        return null;
+    }
+}
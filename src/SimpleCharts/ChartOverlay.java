@@ -0,0 +1,20 @@
+package SimpleCharts;
+
+import java.awt.Graphics;
+
+/**
+ * A decoration painted on top of a chart by a {@link ChartPanel}, such as a
+ * crosshair or a selection rectangle. Overlays are painted on every frame
+ * and never cached, so changing one only requires a <code>repaint()</code>
+ * of the panel.
+ */
+public interface ChartOverlay
+{
+    /**
+     * Paints the overlay.
+     * @param g the graphics context, in chart coordinates
+     * @param width the width of the chart
+     * @param height the height of the chart
+     */
+    public void paintOverlay(Graphics g, int width, int height);
+}
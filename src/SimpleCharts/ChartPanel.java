@@ -1,10 +1,21 @@
 package SimpleCharts;
 
 import SimpleCharts.Chart.Chart;
+import SimpleCharts.Chart.ChartHost;
+import SimpleCharts.Chart.PaintLayer;
+import SimpleCharts.Chart.RenderProbe;
+import java.awt.AlphaComposite;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Insets;
+import java.awt.Transparency;
 import java.awt.event.ActionEvent;
+import java.awt.geom.AffineTransform;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.List;
 import javax.swing.JPanel;
@@ -15,14 +26,41 @@ import javax.swing.SwingUtilities;
  * A Swing GUI component that can be used to hold a (@link Chart) object.
  * The <code>ChartPanel</code> registers with the chart to receive notifications of changes to the chart
  * and registers with the panel to receive mouse and menu events.
+ * <p>
+ * The chart is rendered into one off-screen image per cached (@link PaintLayer).
+ * A repaint re-renders only the layers invalidated through
+ * {@link #repaintLayers(int)} since the last frame and blits the others, so
+ * repaints that do not change the chart, such as moving a tooltip, cost at most three
+ * image copies. Overlays are painted on top on every frame.
+ * <p>
+ * Layer images have one pixel per device pixel, so they stay sharp when the
+ * graphics context is scaled for a high resolution display. The layers
+ * containing text are painted onto an opaque copy of the layers below them
+ * when the panel is opaque, so text keeps the subpixel antialiasing of the
+ * desktop settings, which is lost on translucent images.
+ * <p>
+ * Layer invalidations may come from any thread and are batched by a
+ * {@link FrameScheduler}, so a chart fed by a live data source repaints at
+ * most once per frame interval however often its model changes.
  */
-public class ChartPanel extends JPanel implements Chart.ChangeListener
+public class ChartPanel extends JPanel implements ChartHost, Chart.ChangeListener
 {
     private Chart chart;
     private JPopupMenu popup = null;
     private List<ChartPanelListener> listeners;
     private UserEventHandler user_event_handler;
-    private int last_width, last_height;
+    /** The cached layers, in painting order. */
+    private static final int[] CACHED_LAYERS = {PaintLayer.CHROME, PaintLayer.AXES, PaintLayer.DATA};
+    /**
+     * The cached layers containing text. Each of them is rendered over a copy
+     * of the one before, so only the last needs to be drawn.
+     */
+    private static final int TEXT_LAYERS = PaintLayer.CHROME | PaintLayer.AXES;
+    private final BufferedImage[] layer_images;
+    /** The layers to re-render on the next paint. */
+    private int dirty_layers;
+    private final List<ChartOverlay> overlays;
+    private final FrameScheduler frame_scheduler;
     
     /**
      * Constructs a panel that can contain a chart.
@@ -40,14 +78,41 @@ public class ChartPanel extends JPanel implements Chart.ChangeListener
     {
         assert chart != null;
         this.chart = chart;
-        chart.setChartPanel(this);
+        chart.setChartHost(this);
         this.listeners = new ArrayList<ChartPanelListener>();
         this.user_event_handler = new DefaultUserEventHandler();
+        this.layer_images = new BufferedImage[CACHED_LAYERS.length];
+        this.dirty_layers = PaintLayer.ALL;
+        this.overlays = new ArrayList<ChartOverlay>();
+        this.frame_scheduler = new FrameScheduler(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if(isShowing())
+                    repaint();
+                else
+                    frame_scheduler.cancel();
+            }
+        });
 
         addMouseListener(user_event_handler);
         addMouseMotionListener(user_event_handler);
         setOpaque(true);
         setDoubleBuffered(true);
+        addPropertyChangeListener(new PropertyChangeListener()
+        {
+            @Override
+            public void propertyChange(PropertyChangeEvent event)
+            {
+                // the chart inherits these from the panel
+                final String name = event.getPropertyName();
+                if("font".equals(name) || "background".equals(name) || "foreground".equals(name))
+                    dirty_layers = PaintLayer.ALL;
+                if("font".equals(name) && ChartPanel.this.chart != null)
+                    ChartPanel.this.chart.invalidate();
+            }
+        });
     }
     /**
      * Returns the chart contained in the panel.
@@ -71,9 +136,10 @@ public class ChartPanel extends JPanel implements Chart.ChangeListener
         if(chart != null)
         {
             chart.addChangeListener(this);
-            chart.setChartPanel(this);
+            chart.setChartHost(this);
+            chart.invalidate();
         }
-        repaint();
+        repaintLayers(PaintLayer.ALL);
     }
     /**
      * Returns the pop-up menu.
@@ -111,6 +177,58 @@ public class ChartPanel extends JPanel implements Chart.ChangeListener
     {
         listeners.remove(listener);
     }
+    /**
+     * Adds an overlay painted on top of the chart.
+     * @param overlay the overlay
+     */
+    public void addOverlay(ChartOverlay overlay)
+    {
+        overlays.add(overlay);
+        repaint();
+    }
+    /**
+     * Removes an overlay.
+     * @param overlay the overlay
+     */
+    public void removeOverlay(ChartOverlay overlay)
+    {
+        if(overlays.remove(overlay))
+            repaint();
+    }
+    /**
+     * Returns the scheduler batching the repaints of this panel, e.g. to
+     * change the frame interval or read its statistics.
+     * @return the frame scheduler
+     */
+    public FrameScheduler getFrameScheduler()
+    {
+        return frame_scheduler;
+    }
+    /**
+     * Invalidates the cached rendering of the given layers and schedules a
+     * repaint with the next frame. May be called from any thread.
+     * @param layers the (@link PaintLayer) flags of the layers that changed
+     */
+    @Override
+    public void repaintLayers(int layers)
+    {
+        frame_scheduler.request(layers);
+    }
+    /**
+     * Invalidates the cached rendering of the given layers and schedules a
+     * repaint with the next frame. Frames always repaint the whole panel, so
+     * the region is only a hint. May be called from any thread.
+     * @param layers the (@link PaintLayer) flags of the layers that changed
+     * @param x the <i>x</i> coordinate of the region
+     * @param y the <i>y</i> coordinate of the region
+     * @param width the <i>width</i> of the region
+     * @param height the <i>height</i> of the region
+     */
+    @Override
+    public void repaintLayers(int layers, int x, int y, int width, int height)
+    {
+        frame_scheduler.request(layers);
+    }
     /**
      * Get the user event handler for this chart.
      * 
@@ -133,32 +251,158 @@ public class ChartPanel extends JPanel implements Chart.ChangeListener
     public void paintComponent(Graphics g)
     {
         super.paintComponent(g);
+        dirty_layers |= frame_scheduler.beginFrame();
+        RenderProbe.beginFrame();
+        try
+        {
+            paintChart(g);
+        }
+        finally
+        {
+            RenderProbe.endFrame();
+            frame_scheduler.endFrame();
+        }
+    }
+    private void paintChart(Graphics g)
+    {
         if(chart == null)
             return;
         
         final Insets insets = getInsets();
         final int width = getWidth() - insets.left - insets.right;
         final int height = getHeight() - insets.top - insets.bottom;
+        if(width <= 0 || height <= 0)
+            return;
         final Graphics g2 = g.create(insets.left, insets.top, width, height);
 //        System.out.println("width="+getWidth()+", height="+getHeight());
 //        System.out.println("cropping chartpanel to x="+insets.left+", y="+insets.top+", width="+width+", height="+height);
         try
         {
             chart.setBounds(0, 0, width, height);
-            if(last_width != width || last_height != height)
+            if(!chart.isValid())
+                dirty_layers = PaintLayer.ALL;
+            chart.doLayout();
+            // render at the resolution of the device
+            final AffineTransform transform = g2 instanceof Graphics2D?((Graphics2D)g2).getTransform():new AffineTransform();
+            final double scale_x = deviceScale(transform.getScaleX(), transform.getShearY());
+            final double scale_y = deviceScale(transform.getScaleY(), transform.getShearX());
+            final int image_width = (int)Math.ceil(width*scale_x);
+            final int image_height = (int)Math.ceil(height*scale_y);
+            final boolean is_opaque = isOpaque();
+            for(int i=0; i<CACHED_LAYERS.length; ++i)
             {
-                chart.invalidate();
-                last_width = width;
-                last_height = height;
+                final int layer = CACHED_LAYERS[i];
+                final boolean is_text = (layer & TEXT_LAYERS) != 0;
+                final boolean is_stacked = is_text && is_opaque;
+                BufferedImage image = layer_images[i];
+                if(image == null || image.getWidth() != image_width || image.getHeight() != image_height
+                        || (image.getTransparency() == Transparency.OPAQUE) != is_stacked)
+                {
+                    image = layer_images[i] = createLayerImage(image_width, image_height, is_stacked);
+                    dirty_layers |= layer;
+                }
+                // a stacked layer contains the one below it
+                final boolean is_over_text = is_stacked && i > 0 && (CACHED_LAYERS[i-1] & TEXT_LAYERS) != 0;
+                if(is_over_text && (dirty_layers & CACHED_LAYERS[i-1]) != 0)
+                    dirty_layers |= layer;
+                if((dirty_layers & layer) != 0)
+                    renderLayer(image, layer, is_over_text?layer_images[i-1]:null, is_stacked, g2, scale_x, scale_y);
+                final boolean is_covered = is_stacked && i+1 < CACHED_LAYERS.length
+                        && (CACHED_LAYERS[i+1] & TEXT_LAYERS) != 0;
+                if(!is_covered)
+                    drawLayer(g2, image, scale_x, scale_y);
             }
-            chart.doLayout();
-            chart.paint(g2);
+            dirty_layers = 0;
+            if(g2 instanceof Graphics2D)
+            {
+                PaintLayer.setActiveLayers((Graphics2D)g2, PaintLayer.OVERLAY);
+                chart.paint(g2);
+            }
+            for(int i=0; i<overlays.size(); ++i)
+                overlays.get(i).paintOverlay(g2, width, height);
         }
         finally
         {
             g2.dispose();
         }
     } 
+    /**
+     * Returns the scale of a transform along one axis, or <code>1</code> if
+     * it also rotates or shears.
+     */
+    private static double deviceScale(double scale, double shear)
+    {
+        return shear == 0 && scale > 0?scale:1;
+    }
+    private BufferedImage createLayerImage(int width, int height, boolean is_opaque)
+    {
+        final GraphicsConfiguration gc = getGraphicsConfiguration();
+        if(gc != null)
+            return gc.createCompatibleImage(width, height, is_opaque?Transparency.OPAQUE:Transparency.TRANSLUCENT);
+        return new BufferedImage(width, height, is_opaque?BufferedImage.TYPE_INT_RGB:BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+    /**
+     * Draws a layer image with one image pixel per device pixel.
+     */
+    private static void drawLayer(Graphics g, BufferedImage image, double scale_x, double scale_y)
+    {
+        if(scale_x == 1 && scale_y == 1)
+        {
+            g.drawImage(image, 0, 0, null);
+            return;
+        }
+        final Graphics2D g2 = (Graphics2D)g.create();
+        try
+        {
+            g2.scale(1/scale_x, 1/scale_y);
+            g2.drawImage(image, 0, 0, null);
+        }
+        finally
+        {
+            g2.dispose();
+        }
+    }
+    /**
+     * Paints the components of one layer into a layer image, over a copy of
+     * <code>below</code>, the panel background or nothing.
+     * @param target the graphics context the image will be drawn with, whose
+     * rendering hints, such as the text antialiasing settings, are used
+     */
+    private void renderLayer(BufferedImage image, int layer, BufferedImage below, boolean fill_background,
+            Graphics target, double scale_x, double scale_y)
+    {
+        final Graphics2D g = image.createGraphics();
+        try
+        {
+            if(below != null)
+            {
+                g.setComposite(AlphaComposite.Src);
+                g.drawImage(below, 0, 0, null);
+            }
+            else if(fill_background)
+            {
+                g.setColor(getBackground());
+                g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            }
+            else
+            {
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            }
+            g.setComposite(AlphaComposite.SrcOver);
+            if(target instanceof Graphics2D)
+                g.addRenderingHints(((Graphics2D)target).getRenderingHints());
+            g.scale(scale_x, scale_y);
+            g.setFont(getFont());
+            g.setColor(getForeground());
+            PaintLayer.setActiveLayers(g, layer);
+            chart.paint(g);
+        }
+        finally
+        {
+            g.dispose();
+        }
+    }
     /**
      * Receives notification of changes to the chart, and redraws the chart.
      *
@@ -167,7 +411,7 @@ public class ChartPanel extends JPanel implements Chart.ChangeListener
     @Override
     public void chartChanged(Chart.ChangeEvent event)
     {
-        repaint();
+        repaintLayers(PaintLayer.ALL);
     }
     /**
      * Updates the UI for a LookAndFeel change.
@@ -0,0 +1,34 @@
+package SimpleCharts;
+
+import java.util.concurrent.Executor;
+import javax.swing.SwingUtilities;
+
+/**
+ * An <code>Executor</code> running tasks on the event dispatch thread: at
+ * once when called on it, otherwise later through
+ * <code>SwingUtilities.invokeLater</code>.
+ * <p>
+ * Set it as the notification executor of a data model written by other
+ * threads, so the plots showing the model are updated on the event dispatch
+ * thread.
+ * @see DataModel.AbstractDataModel#setNotificationExecutor(Executor)
+ */
+public final class EventDispatchExecutor implements Executor
+{
+    /** The shared instance. */
+    public static final EventDispatchExecutor INSTANCE = new EventDispatchExecutor();
+
+    private EventDispatchExecutor()
+    {
+    }
+    @Override
+    public void execute(Runnable task)
+    {
+        if(task == null)
+            throw new IllegalArgumentException("Null 'task' argument.");
+        if(SwingUtilities.isEventDispatchThread())
+            task.run();
+        else
+            SwingUtilities.invokeLater(task);
+    }
+}
@@ -0,0 +1,257 @@
+package SimpleCharts;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Batches repaint requests into frames issued at most once per frame interval.
+ * <p>
+ * {@link #request(int)} may be called from any thread, for example by a data
+ * model fed from a network thread. Requests arriving while a frame is
+ * scheduled are merged into it, so a burst of updates costs one repaint. The
+ * frame task runs on the event dispatch thread no earlier than one interval
+ * after the previous frame started; the painting code then collects the
+ * merged (@link SimpleCharts.Chart.PaintLayer) flags with {@link #beginFrame()}
+ * and reports its duration with {@link #endFrame()}.
+ * <p>
+ * In adaptive mode the interval is stretched to twice the average paint time,
+ * so slow charts keep the event dispatch thread at most half busy.
+ */
+public class FrameScheduler
+{
+    /** The default frame interval in milliseconds, about 60 frames per second. */
+    public static final int DEFAULT_FRAME_INTERVAL = 16;
+
+    private final Runnable frame_task;
+    private final Timer timer;
+    private volatile int frame_interval;
+    private volatile boolean is_adaptive;
+
+    private final AtomicInteger pending_layers;
+    private final AtomicBoolean is_scheduled;
+    /** When the first request of the pending frame arrived. */
+    private volatile long first_request_time;
+    private volatile long last_frame_time;
+    private volatile long average_paint_time;
+    /** Only accessed on the event dispatch thread. */
+    private long frame_start_time;
+    private final AtomicLong request_count, coalesced_count;
+    /** Only written on the event dispatch thread. */
+    private volatile long frame_count, dropped_count;
+
+    /**
+     * Constructs a scheduler issuing at most 60 frames per second.
+     * @param frame_task the task requesting a repaint, run on the event dispatch thread
+     */
+    public FrameScheduler(Runnable frame_task)
+    {
+        if(frame_task == null)
+            throw new IllegalArgumentException("Null 'frame_task' argument.");
+        this.frame_task = frame_task;
+        this.frame_interval = DEFAULT_FRAME_INTERVAL;
+        this.is_adaptive = false;
+        this.pending_layers = new AtomicInteger();
+        this.is_scheduled = new AtomicBoolean();
+        this.request_count = new AtomicLong();
+        this.coalesced_count = new AtomicLong();
+        this.timer = new Timer(DEFAULT_FRAME_INTERVAL, new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent event)
+            {
+                fire();
+            }
+        });
+        timer.setRepeats(false);
+        this.last_frame_time = System.nanoTime();
+    }
+    public int getFrameInterval()
+    {
+        return frame_interval;
+    }
+    /**
+     * Sets the minimum time between two frames.
+     * @param millis the interval in milliseconds, or <code>0</code> to
+     * repaint as soon as possible after every request
+     */
+    public void setFrameInterval(int millis)
+    {
+        if(millis < 0)
+            throw new IllegalArgumentException("Negative 'millis' argument.");
+        this.frame_interval = millis;
+    }
+    public boolean isAdaptive()
+    {
+        return is_adaptive;
+    }
+    /**
+     * Sets whether the frame interval is stretched to twice the average
+     * paint time when painting is slower than the frame interval allows.
+     * @param flag <code>true</code> to adapt the interval
+     */
+    public void setAdaptive(boolean flag)
+    {
+        this.is_adaptive = flag;
+    }
+    /**
+     * Returns the interval currently enforced between frames, taking the
+     * adaptive mode into account.
+     * @return the interval in nanoseconds
+     */
+    public long getEffectiveFrameInterval()
+    {
+        final long interval = frame_interval*1000000L;
+        if(is_adaptive)
+            return Math.max(interval, 2*average_paint_time);
+        return interval;
+    }
+    /**
+     * Adds layers to the next frame and schedules it unless it is already
+     * scheduled. May be called from any thread.
+     * @param layers the (@link SimpleCharts.Chart.PaintLayer) flags of the layers that changed
+     */
+    public void request(int layers)
+    {
+        request_count.incrementAndGet();
+        int pending = pending_layers.get();
+        while((pending | layers) != pending && !pending_layers.compareAndSet(pending, pending | layers))
+            pending = pending_layers.get();
+        if(!is_scheduled.compareAndSet(false, true))
+        {
+            coalesced_count.incrementAndGet();
+            return;
+        }
+        final long now = System.nanoTime();
+        first_request_time = now;
+        final long delay = last_frame_time + getEffectiveFrameInterval() - now;
+        final int millis = (int)Math.max(0, (delay + 999999)/1000000);
+        if(SwingUtilities.isEventDispatchThread())
+            start(millis);
+        else
+            SwingUtilities.invokeLater(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    start(millis);
+                }
+            });
+    }
+    /**
+     * Returns and clears the layers requested since the last frame. Called
+     * on the event dispatch thread when painting starts.
+     * @return the (@link SimpleCharts.Chart.PaintLayer) flags of the layers to re-render
+     */
+    public int beginFrame()
+    {
+        final long now = System.nanoTime();
+        // unschedule before taking the layers, so a concurrent request either
+        // adds its layers to this frame or schedules the next one
+        if(is_scheduled.getAndSet(false))
+        {
+            final long interval = getEffectiveFrameInterval();
+            final long due = Math.max(first_request_time, last_frame_time + interval);
+            if(interval > 0 && now > due)
+                dropped_count += (now - due)/interval;
+        }
+        final int layers = pending_layers.getAndSet(0);
+        last_frame_time = frame_start_time = now;
+        ++frame_count;
+        return layers;
+    }
+    /**
+     * Unschedules the pending frame without clearing its layers, e.g. when
+     * the frame task finds nothing to paint on. The layers are returned by
+     * the next call to {@link #beginFrame()}.
+     */
+    public void cancel()
+    {
+        is_scheduled.set(false);
+    }
+    /**
+     * Records the end of the frame started by the last call to {@link #beginFrame()}.
+     */
+    public void endFrame()
+    {
+        final long paint_time = System.nanoTime() - frame_start_time;
+        if(average_paint_time == 0)
+            average_paint_time = paint_time;
+        else
+            average_paint_time += (paint_time - average_paint_time)/8;
+    }
+    /**
+     * Returns the number of calls to {@link #request(int)}.
+     * @return the number of requests
+     */
+    public long getRequestCount()
+    {
+        return request_count.get();
+    }
+    /**
+     * Returns the number of requests merged into an already scheduled frame.
+     * @return the number of requests that did not cause a frame of their own
+     */
+    public long getCoalescedCount()
+    {
+        return coalesced_count.get();
+    }
+    /**
+     * Returns the number of frames painted.
+     * @return the number of calls to {@link #beginFrame()}
+     */
+    public long getFrameCount()
+    {
+        return frame_count;
+    }
+    /**
+     * Returns the number of frame intervals missed because pending frames
+     * were painted later than they were due, e.g. while the event dispatch
+     * thread was busy.
+     * @return the number of dropped frames
+     */
+    public long getDroppedFrameCount()
+    {
+        return dropped_count;
+    }
+    /**
+     * Returns the exponential moving average of the paint time.
+     * @return the average time between {@link #beginFrame()} and
+     * {@link #endFrame()} in nanoseconds
+     */
+    public long getAveragePaintTime()
+    {
+        return average_paint_time;
+    }
+    /**
+     * Resets all counters and the average paint time.
+     */
+    public void resetStatistics()
+    {
+        request_count.set(0);
+        coalesced_count.set(0);
+        frame_count = 0;
+        dropped_count = 0;
+        average_paint_time = 0;
+    }
+    private void start(int millis)
+    {
+        if(millis <= 0)
+            fire();
+        else
+        {
+            timer.setInitialDelay(millis);
+            timer.restart();
+        }
+    }
+    private void fire()
+    {
+        // a paint triggered by Swing may already have taken the frame
+        if(is_scheduled.get())
+            frame_task.run();
+    }
+}
@@ -0,0 +1,24 @@
+package SimpleCharts.Plot;
+
+import DataModel.XYDataModel;
+import SimpleCharts.Axis.Range;
+
+/**
+ * Reduces the points of an <code>XYDataModel</code> to a set small enough to
+ * be drawn efficiently onto a plot area of a given size.
+ */
+public interface Downsampler
+{
+    /**
+     * Reduces the elements <code>from</code> (inclusive) to <code>to</code>
+     * (exclusive) of <code>data</code>, replacing the contents of <code>out</code>
+     * with the points to draw, in drawing order.
+     * @param data the data model
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param domain the visible domain
+     * @param pixels the number of pixel columns the domain is mapped onto
+     * @param out the buffer receiving the reduced points
+     */
+    public void downsample(XYDataModel<?> data, int from, int to, Range domain, int pixels, PointBuffer out);
+}
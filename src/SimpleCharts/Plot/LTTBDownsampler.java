@@ -0,0 +1,145 @@
+package SimpleCharts.Plot;
+
+import DataModel.XYDataModel;
+import SimpleCharts.Axis.Range;
+
+/**
+ * A <code>Downsampler</code> implementing the Largest-Triangle-Three-Buckets
+ * algorithm (Steinarsson, 2013).
+ * <p>
+ * The points are split into equally sized buckets and from each bucket the
+ * point forming the largest triangle with the point selected from the previous
+ * bucket and the average of the next bucket is kept. The first and last points
+ * are always kept. The result preserves the visual shape of the series with a
+ * fixed number of points, but unlike {@link MinMaxDownsampler} it does not
+ * guarantee every extreme is drawn. Points with a <code>NaN</code> coordinate
+ * are never selected; a bucket containing one passes it through, so the line
+ * is broken at the gap as with <code>MinMaxDownsampler</code>.
+ */
+public class LTTBDownsampler implements Downsampler
+{
+    /** The number of points per pixel column used when no threshold is set. */
+    private static final int DEFAULT_POINTS_PER_COLUMN = 2;
+
+    private int threshold;
+
+    /**
+     * Constructs a downsampler producing two points per pixel column.
+     */
+    public LTTBDownsampler()
+    {
+        this(0);
+    }
+    /**
+     * Constructs a downsampler producing at most <code>threshold</code> points.
+     * @param threshold the maximum number of points, or <code>0</code> to use
+     * two points per pixel column
+     */
+    public LTTBDownsampler(int threshold)
+    {
+        setThreshold(threshold);
+    }
+    public int getThreshold()
+    {
+        return threshold;
+    }
+    /**
+     * Sets the maximum number of points produced.
+     * @param threshold the maximum number of points, or <code>0</code> to use
+     * two points per pixel column
+     */
+    public final void setThreshold(int threshold)
+    {
+        if(threshold < 0)
+            throw new IllegalArgumentException("Negative 'threshold' argument.");
+        this.threshold = threshold;
+    }
+    @Override
+    public void downsample(XYDataModel<?> data, int from, int to, Range domain, int pixels, PointBuffer out)
+    {
+        out.clear();
+        final int count = to - from;
+        final int target = threshold > 0?threshold:pixels*DEFAULT_POINTS_PER_COLUMN;
+        if(count <= 0)
+            return;
+        if(target < 3 || count <= target)
+        {
+            out.ensureCapacity(count);
+            data.copyX(from, to, out.getXValues());
+            data.copyY(from, to, out.getYValues());
+            out.setSize(count);
+            return;
+        }
+        out.ensureCapacity(target);
+        final double bucket_size = (double)(count - 2)/(target - 2);
+
+        // the anchor is the last point selected with valid coordinates
+        double a_x = data.getX(from);
+        double a_y = data.getY(from);
+        boolean has_anchor = !Double.isNaN(a_x) && !Double.isNaN(a_y);
+        out.add(a_x, a_y);
+        for(int bucket=0; bucket<target-2; ++bucket)
+        {
+            // the average of the next bucket is the third vertex of the triangle
+            final int next_start = from + 1 + (int)((bucket + 1)*bucket_size);
+            final int next_end = Math.min(from + 1 + (int)((bucket + 2)*bucket_size), to);
+            double avg_x = 0, avg_y = 0;
+            int n = 0;
+            for(int i=next_start; i<next_end; ++i)
+            {
+                final double x = data.getX(i);
+                final double y = data.getY(i);
+                if(Double.isNaN(x) || Double.isNaN(y))
+                    continue;
+                avg_x += x;
+                avg_y += y;
+                ++n;
+            }
+            if(n > 0)
+            {
+                avg_x /= n;
+                avg_y /= n;
+            }
+            else
+            {
+                // without a third vertex every area is 0 and the first valid point is kept
+                avg_x = a_x;
+                avg_y = a_y;
+            }
+
+            final int start = from + 1 + (int)(bucket*bucket_size);
+            final int end = from + 1 + (int)((bucket + 1)*bucket_size);
+            double max_area = -1;
+            int max_index = -1, gap_index = -1;
+            for(int i=start; i<end; ++i)
+            {
+                final double x = data.getX(i);
+                final double y = data.getY(i);
+                if(Double.isNaN(x) || Double.isNaN(y))
+                {
+                    if(gap_index < 0)
+                        gap_index = i;
+                    continue;
+                }
+                final double area = has_anchor?Math.abs((a_x - avg_x)*(y - a_y) - (a_x - x)*(avg_y - a_y)):0;
+                if(area > max_area)
+                {
+                    max_area = area;
+                    max_index = i;
+                }
+            }
+            if(gap_index >= 0 && (max_index < 0 || gap_index < max_index))
+                out.add(data.getX(gap_index), data.getY(gap_index));
+            if(max_index >= 0)
+            {
+                a_x = data.getX(max_index);
+                a_y = data.getY(max_index);
+                has_anchor = true;
+                out.add(a_x, a_y);
+            }
+            if(gap_index > max_index && max_index >= 0)
+                out.add(data.getX(gap_index), data.getY(gap_index));
+        }
+        out.add(data.getX(to-1), data.getY(to-1));
+    }
+}
@@ -3,8 +3,10 @@ package SimpleCharts.Plot;
 import DataModel.DataModel;
 import DataModel.XYData;
 import DataModel.XYDataModel;
+import DataModel.XYDataUtilities;
 import SimpleCharts.Axis.Axis;
 import SimpleCharts.Axis.NumberAxis;
+import SimpleCharts.Axis.Range;
 import SimpleCharts.Axis.ValueAxis;
 import SimpleCharts.Chart.Border.CompoundBorder;
 import SimpleCharts.Chart.Border.LineBorder;
@@ -16,11 +18,15 @@ import java.awt.*;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  */
 public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeListener, DataModel.ChangeListener
 {
+    private static final Logger logger = Logger.getLogger(LinePlot.class.getName());
+
     private int position;
     private int orientation;
     private String name;
@@ -32,6 +38,7 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
     private int min_point_width;
     private boolean show_points;
     private XYDataModel<? extends XYData> data;
+    private Downsampler downsampler;
     private final List<Plot.ChangeListener> change_listeners;
     
     public LinePlot(String name)
@@ -52,6 +59,7 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
         max_point_width = 8;
         min_point_width = 3;
         show_points = true;
+        downsampler = new MinMaxDownsampler();
         final PlotArea plot_area = new LinePlotArea();
         setLayout(new PlotLayout(plot_area));
         add(plot_area);
@@ -127,6 +135,29 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
     {
         show_points = b;
     }
+    /**
+     * Get the strategy used to reduce the data before drawing.
+     * @return the downsampler, or <code>null</code> if every point is drawn.
+     */
+    public Downsampler getDownsampler()
+    {
+        return downsampler;
+    }
+    /**
+     * Set the strategy used to reduce the data before drawing. The default is
+     * a {@link MinMaxDownsampler}.
+     * @param downsampler the downsampler, or <code>null</code> to draw every point.
+     * @see LTTBDownsampler
+     */
+    public void setDownsampler(Downsampler downsampler)
+    {
+        if(this.downsampler != downsampler)
+        {
+            releaseDownsampler();
+            this.downsampler = downsampler;
+            repaintLayers(PaintLayer.DATA);
+        }
+    }
     @Override
     public void addChangeListener(Plot.ChangeListener listener)
     {
@@ -141,19 +172,44 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
     {
         if(this.data != null)
             this.data.removeChangeListener(this);
+        if(this.data != data)
+            releaseDownsampler();
         this.data = data;
         if(data != null)
             data.addChangeListener(this);
-        System.out.println("domain range = "
-                +Utilities.formatDate(data.getDataDomain().getLowerBound())
-                +" to "+Utilities.formatDate(data.getDataDomain().getUpperBound()));
-        domain_axis.autoAdjustForRange(data.getDataDomain());
-        range_axis.autoAdjustForRange(data.getDataRange());
+        if(data != null && data.getDataDomain() != null && logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "Data domain of {0} is {1} to {2}", new Object[]{name,
+                    Utilities.formatDate(data.getDataDomain().getLowerBound()),
+                    Utilities.formatDate(data.getDataDomain().getUpperBound())});
+        autoAdjustAxes();
         fireDataModelChanged();
     }
     @Override
     public void dataModelChanged()
     {
+        autoAdjustAxes();
+        fireDataModelChanged();
+    }
+    private void autoAdjustAxes()
+    {
+        if(data == null || data.isEmpty())
+            return;
+        // null if every point is a gap
+        final Range domain = data.getDataDomain();
+        final Range range = data.getDataRange();
+        if(domain != null)
+            domain_axis.autoAdjustForRange(domain);
+        if(range != null)
+            range_axis.autoAdjustForRange(range);
+    }
+    /**
+     * Releases the index a (@link PyramidDownsampler) keeps over the current
+     * data model.
+     */
+    private void releaseDownsampler()
+    {
+        if(downsampler instanceof PyramidDownsampler)
+            ((PyramidDownsampler)downsampler).dispose();
     }
     public void fireDataModelChanged()
     {
@@ -181,6 +237,7 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
     @Override
     public void axisChanged(Axis axis)
     {
+        repaintLayers(PaintLayer.AXES | PaintLayer.DATA);
     }
     private class LineLegendItem extends Label
     {
@@ -194,11 +251,13 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
         @Override
         public void paintComponent(Graphics g)
         {
-            final FontMetrics fm = g.getFontMetrics();
+            final Font font = getFont();
+            final FontMetrics fm = g.getFontMetrics(font);
             final Insets insets = getInsets();
             final int height = getHeight();
-            final Rectangle2D rect = fm.getStringBounds(getText(), g);
+            final Rectangle2D rect = TextMeasurer.getInstance(font, g).getStringBounds(getText());
             final int y = (height - (int)rect.getHeight())/2 + fm.getAscent();
+            g.setFont(font);
             g.setColor(getForeground());
             g.drawString(getText(), insets.left, y);
             final int x = rect.getBounds().width + gap;
@@ -207,16 +266,22 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
             g.drawLine(x, line_y, x+line_length, line_y);
         }
         @Override
-        public Dimension getPreferredSize()
+        protected Dimension computePreferredSize()
         {
             final Graphics g = getGraphics();
-            final FontMetrics fm = g.getFontMetrics();
-            final Rectangle2D rect = fm.getStringBounds(getText(), g);
+            final Rectangle2D rect = TextMeasurer.getInstance(getFont(), g).getStringBounds(getText());
             return new Dimension(rect.getBounds().width+line_length+gap+1, rect.getBounds().height);
         }
     }
     private class LinePlotArea extends PlotArea
     {
+        private final PointBuffer points = new PointBuffer();
+        /** Device coordinates of <code>points</code>, reused between repaints. */
+        private int[] x_coords = new int[0], y_coords = new int[0];
+        /** Scratch buffers for runs not starting at the first point. */
+        private int[] x_run = new int[0], y_run = new int[0];
+        private boolean[] is_gap = new boolean[0];
+
         LinePlotArea()
         {
             setBorder(new CompoundBorder(new EmptyBorder(3,3,3,3), new LineBorder(Color.black)));
@@ -235,39 +300,54 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
                 g2.setColor(getBackground());
                 g2.fillRect(insets.left, insets.top, width-insets.left-insets.right, height-insets.top-insets.bottom);
 
-                if(data != null || !data.isEmpty())
+                // read the size once, so points appended while painting are left for the next frame
+                final int size = data != null?data.size():0;
+                if(size > 0)
                 {
                     g2.setStroke(stroke);
-                    XYData item = data.get(0);
-                    int last_x = domain_axis.valueToCoord(item.getX());
-                    int last_y = range_axis.valueToCoord(item.getY());
-                    final int point_width = Math.min(width/data.size(), max_point_width);
-                    for(int i=1; i<data.size(); ++i)
+                    final long data_start = RenderProbe.start();
+                    final Range visible = domain_axis.getRange();
+                    int from = 0;
+                    int to = size;
+                    if(data.isSortedByX())
                     {
-                        item = data.get(i);
-                        final int x = domain_axis.valueToCoord(item.getX());
-                        final int y = range_axis.valueToCoord(item.getY());
-                        g2.setColor(line_color);
-                        g2.drawLine(last_x, last_y, x, y);
-                        if(show_points && point_width > min_point_width)
-                        {
-                            final Color color = point_color!=null?point_color:line_color;
-                            g2.setPaint(color);
-                            g2.fillRect(last_x-point_width/2, last_y-point_width/2, point_width, point_width);
-                            g2.setPaint(line_color);
-                            g2.drawRect(last_x-point_width/2, last_y-point_width/2, point_width-1, point_width-1);
-                        }
-                        last_x = x;
-                        last_y = y;
+                        // keep one point either side so segments crossing the edges are drawn
+                        from = Math.max(from, XYDataUtilities.lowerIndex(data, from, to, visible.getLowerBound()) - 1);
+                        to = Math.min(to, XYDataUtilities.upperIndex(data, from, to, visible.getUpperBound()) + 2);
                     }
-                    if(show_points && point_width > min_point_width)
+                    final int count = to - from;
+                    if(count <= 0)
+                        return;
+                    final int pixels = domain_axis.getOrientation()==ChartComponent.HORIZONTAL
+                            ?domain_axis.getWidth():domain_axis.getHeight();
+                    if(downsampler != null)
+                        downsampler.downsample(data, from, to, visible, pixels, points);
+                    else
                     {
-                        final Color color = point_color!=null?point_color:line_color;
-                        g2.setPaint(color);
-                        g2.fillRect(last_x-point_width/2, last_y-point_width/2, point_width, point_width);
-                        g2.setPaint(line_color);
-                        g2.drawRect(last_x-point_width/2, last_y-point_width/2, point_width-1, point_width-1);
+                        points.clear();
+                        points.ensureCapacity(count);
+                        data.copyX(from, to, points.getXValues());
+                        data.copyY(from, to, points.getYValues());
+                        points.setSize(count);
                     }
+                    final int n = points.size();
+                    if(n == 0)
+                        return;
+                    ensureCoordCapacity(n);
+                    domain_axis.valuesToCoords(points.getXValues(), x_coords, 0, n);
+                    range_axis.valuesToCoords(points.getYValues(), y_coords, 0, n);
+                    for(int i=0; i<n; ++i)
+                        is_gap[i] = Double.isNaN(points.getX(i)) || Double.isNaN(points.getY(i));
+                    RenderProbe.stop(RenderProbe.DATA, data_start);
+                    RenderProbe.count(RenderProbe.POINTS_DRAWN, n);
+                    RenderProbe.count(RenderProbe.POINTS_DECIMATED, Math.max(0, count - n));
+
+                    final long draw_start = RenderProbe.start();
+                    drawLines(g2, n);
+                    final int point_width = Math.min(width/count, max_point_width);
+                    if(show_points && point_width > min_point_width)
+                        drawPoints(g2, n, point_width);
+                    RenderProbe.stop(RenderProbe.DRAW, draw_start);
                 }
             }
             finally
@@ -275,5 +355,61 @@ public class LinePlot extends AbstractContainer implements Plot, Axis.ChangeList
                 g2.dispose();
             }
         }
+        /**
+         * Draws one polyline per run of consecutive valid points. Points with a
+         * <code>NaN</code> coordinate break the line.
+         */
+        private void drawLines(Graphics2D g2, int n)
+        {
+            g2.setColor(line_color);
+            int run_start = 0;
+            for(int i=0; i<=n; ++i)
+            {
+                if(i < n && !is_gap[i])
+                    continue;
+                final int run_length = i - run_start;
+                if(run_length > 1)
+                {
+                    // drawPolyline always starts at index 0
+                    if(run_start > 0)
+                    {
+                        System.arraycopy(x_coords, run_start, x_run, 0, run_length);
+                        System.arraycopy(y_coords, run_start, y_run, 0, run_length);
+                        g2.drawPolyline(x_run, y_run, run_length);
+                    }
+                    else
+                        g2.drawPolyline(x_coords, y_coords, run_length);
+                }
+                run_start = i + 1;
+            }
+        }
+        /**
+         * Fills all point markers, then outlines them, so the colour changes
+         * once per pass rather than once per point.
+         */
+        private void drawPoints(Graphics2D g2, int n, int point_width)
+        {
+            final int half = point_width/2;
+            g2.setColor(point_color!=null?point_color:line_color);
+            for(int i=0; i<n; ++i)
+                if(!is_gap[i])
+                    g2.fillRect(x_coords[i]-half, y_coords[i]-half, point_width, point_width);
+            g2.setColor(line_color);
+            for(int i=0; i<n; ++i)
+                if(!is_gap[i])
+                    g2.drawRect(x_coords[i]-half, y_coords[i]-half, point_width-1, point_width-1);
+        }
+        private void ensureCoordCapacity(int n)
+        {
+            if(x_coords.length < n)
+            {
+                final int capacity = Math.max(n, x_coords.length*2);
+                x_coords = new int[capacity];
+                y_coords = new int[capacity];
+                x_run = new int[capacity];
+                y_run = new int[capacity];
+                is_gap = new boolean[capacity];
+            }
+        }
     }
 }
@@ -0,0 +1,114 @@
+package SimpleCharts.Plot;
+
+import DataModel.XYDataModel;
+import SimpleCharts.Axis.Range;
+
+/**
+ * A <code>Downsampler</code> that keeps, for every run of consecutive points
+ * falling into the same pixel column, the first, minimum, maximum and last
+ * point of the run.
+ * <p>
+ * The polyline through the reduced points covers exactly the same pixels as
+ * the polyline through all points, while the number of points drawn is
+ * bounded by four per pixel column for data sorted by x. Points with a
+ * <code>NaN</code> coordinate are passed through unchanged.
+ */
+public class MinMaxDownsampler implements Downsampler
+{
+    /**
+     * Data sets with no more than this many points per pixel column are not reduced.
+     */
+    static final int POINTS_PER_COLUMN = 4;
+
+    @Override
+    public void downsample(XYDataModel<?> data, int from, int to, Range domain, int pixels, PointBuffer out)
+    {
+        out.clear();
+        final int count = to - from;
+        if(count <= 0)
+            return;
+        final double extent = domain.getExtent();
+        if(pixels <= 0 || extent <= 0 || count <= pixels*POINTS_PER_COLUMN)
+        {
+            out.ensureCapacity(count);
+            data.copyX(from, to, out.getXValues());
+            data.copyY(from, to, out.getYValues());
+            out.setSize(count);
+            return;
+        }
+        final double lower = domain.getLowerBound();
+        final double scale = pixels/extent;
+
+        int first = -1, last = -1, min = -1, max = -1;
+        double min_y = 0, max_y = 0;
+        int run_column = 0;
+        for(int i=from; i<to; ++i)
+        {
+            final double x = data.getX(i);
+            final double y = data.getY(i);
+            if(Double.isNaN(x) || Double.isNaN(y))
+            {
+                if(first >= 0)
+                    flush(data, first, min, max, last, out);
+                first = -1;
+                out.add(x, y);
+                continue;
+            }
+            final int column = column(x, lower, scale, pixels);
+            if(first >= 0 && column == run_column)
+            {
+                last = i;
+                if(y < min_y)
+                {
+                    min_y = y;
+                    min = i;
+                }
+                else if(y > max_y)
+                {
+                    max_y = y;
+                    max = i;
+                }
+            }
+            else
+            {
+                if(first >= 0)
+                    flush(data, first, min, max, last, out);
+                first = last = min = max = i;
+                min_y = max_y = y;
+                run_column = column;
+            }
+        }
+        if(first >= 0)
+            flush(data, first, min, max, last, out);
+    }
+    /**
+     * Returns the pixel column of <code>x</code>. Points left or right of the
+     * visible domain are collapsed into one column on either side.
+     */
+    static int column(double x, double lower, double scale, int pixels)
+    {
+        final double column = Math.floor((x - lower)*scale);
+        if(column < 0)
+            return -1;
+        if(column >= pixels)
+            return pixels;
+        return (int)column;
+    }
+    /**
+     * Emits the points of a run in index order, skipping duplicates.
+     * <code>min</code> and <code>max</code> are both <code>-1</code> if the run
+     * has no valid y value.
+     */
+    static void flush(XYDataModel<?> data, int first, int min, int max, int last, PointBuffer out)
+    {
+        final int low = Math.min(min, max);
+        final int high = Math.max(min, max);
+        out.add(data.getX(first), data.getY(first));
+        if(low > first)
+            out.add(data.getX(low), data.getY(low));
+        if(high > low && high > first)
+            out.add(data.getX(high), data.getY(high));
+        if(last > high && last > first)
+            out.add(data.getX(last), data.getY(last));
+    }
+}
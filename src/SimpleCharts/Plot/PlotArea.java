@@ -2,6 +2,7 @@
 package SimpleCharts.Plot;
 
 import SimpleCharts.Chart.AbstractComponent;
+import SimpleCharts.Chart.PaintLayer;
 
 /**
  *
@@ -9,4 +10,9 @@ import SimpleCharts.Chart.AbstractComponent;
  */
 public class PlotArea extends AbstractComponent
 {
+    @Override
+    public int getPaintLayer()
+    {
+        return PaintLayer.DATA;
+    }
 }
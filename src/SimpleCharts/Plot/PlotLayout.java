@@ -7,6 +7,8 @@ import SimpleCharts.Chart.Container;
 import SimpleCharts.Chart.Layout.LayoutManager;
 import java.awt.Dimension;
 import java.awt.Insets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  *
@@ -14,6 +16,8 @@ import java.awt.Insets;
  */
 public class PlotLayout implements LayoutManager
 {
+    private static final Logger logger = Logger.getLogger(PlotLayout.class.getName());
+
     private final PlotArea plot_area;
     
     public PlotLayout(PlotArea plot_area)
@@ -75,7 +79,9 @@ public class PlotLayout implements LayoutManager
         final int height = container.getHeight();
         final Insets insets = container.getInsets();
         final Insets plot_area_insets = plot_area.getInsets();
-        System.out.println("Laying out plot width="+width+", height="+height+", ncomps="+container.getComponentCount());
+        if(logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "Laying out plot width={0}, height={1}, ncomps={2}",
+                    new Object[]{width, height, container.getComponentCount()});
         
         /**
          * Size axis
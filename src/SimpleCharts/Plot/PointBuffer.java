@@ -0,0 +1,84 @@
+package SimpleCharts.Plot;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, growable buffer of (x,y) points stored in two primitive columns.
+ * Used to pass reduced point sets from a {@link Downsampler} to the renderer
+ * without allocating per point or per frame.
+ */
+public class PointBuffer
+{
+    private double[] x_values, y_values;
+    private int size;
+
+    public PointBuffer()
+    {
+        this(256);
+    }
+    public PointBuffer(int capacity)
+    {
+        x_values = new double[capacity];
+        y_values = new double[capacity];
+        size = 0;
+    }
+    public int size()
+    {
+        return size;
+    }
+    public double getX(int index)
+    {
+        return x_values[index];
+    }
+    public double getY(int index)
+    {
+        return y_values[index];
+    }
+    /**
+     * Returns the backing x column. Only the first <code>size()</code> values are valid.
+     * @return the x column
+     */
+    public double[] getXValues()
+    {
+        return x_values;
+    }
+    /**
+     * Returns the backing y column. Only the first <code>size()</code> values are valid.
+     * @return the y column
+     */
+    public double[] getYValues()
+    {
+        return y_values;
+    }
+    public void clear()
+    {
+        size = 0;
+    }
+    public void add(double x, double y)
+    {
+        if(size == x_values.length)
+            ensureCapacity(size+1);
+        x_values[size] = x;
+        y_values[size] = y;
+        ++size;
+    }
+    /**
+     * Sets the number of valid points, after the columns have been filled directly.
+     * @param size the new size, not exceeding the capacity
+     */
+    public void setSize(int size)
+    {
+        if(size < 0 || size > x_values.length)
+            throw new IllegalArgumentException("Invalid 'size' argument.");
+        this.size = size;
+    }
+    public void ensureCapacity(int capacity)
+    {
+        if(capacity > x_values.length)
+        {
+            final int new_capacity = Math.max(capacity, x_values.length + (x_values.length >> 1) + 1);
+            x_values = Arrays.copyOf(x_values, new_capacity);
+            y_values = Arrays.copyOf(y_values, new_capacity);
+        }
+    }
+}
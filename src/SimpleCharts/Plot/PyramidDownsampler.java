@@ -0,0 +1,146 @@
+package SimpleCharts.Plot;
+
+import DataModel.MinMaxPyramid;
+import DataModel.XYDataModel;
+import SimpleCharts.Axis.Range;
+
+/**
+ * A <code>Downsampler</code> that answers min/max-per-pixel queries from a
+ * precomputed {@link MinMaxPyramid} instead of visiting every point.
+ * <p>
+ * The pyramid is updated after data model changes, incrementally for the
+ * append-only and ring-buffer models. Each repaint walks the
+ * visible points in the largest aligned blocks that fit; a block whose first
+ * and last points fall into different pixel columns, or which contains a
+ * <code>NaN</code> coordinate, is split into its two halves, down to single
+ * points below {@link MinMaxPyramid#BASE_LEVEL}. Only the blocks at the
+ * borders between columns are split, so zooming and panning cost
+ * O(pixels &middot; log n) regardless of the size of the data set, and the
+ * result is exactly that of a {@link MinMaxDownsampler}.
+ * <p>
+ * Data that is not sorted by x, or few enough points to be drawn unreduced,
+ * is handed to a <code>MinMaxDownsampler</code>.
+ * <p>
+ * A (@link LinePlot) disposes the downsampler when it is replaced or the
+ * plot's data model changes. The pyramid is only weakly referenced by the
+ * data model, so a downsampler dropped without being disposed does not leak.
+ */
+public class PyramidDownsampler implements Downsampler
+{
+    private final MinMaxDownsampler fallback;
+    private MinMaxPyramid pyramid;
+
+    public PyramidDownsampler()
+    {
+        fallback = new MinMaxDownsampler();
+    }
+    /**
+     * Unregisters the pyramid from its data model and releases it. The
+     * downsampler builds a new pyramid if it is used again.
+     */
+    public void dispose()
+    {
+        if(pyramid != null)
+        {
+            pyramid.dispose();
+            pyramid = null;
+        }
+    }
+    @Override
+    public void downsample(XYDataModel<?> data, int from, int to, Range domain, int pixels, PointBuffer out)
+    {
+        final double extent = domain.getExtent();
+        if(!data.isSortedByX() || pixels <= 0 || extent <= 0 || to - from <= pixels*MinMaxDownsampler.POINTS_PER_COLUMN)
+        {
+            fallback.downsample(data, from, to, domain, pixels, out);
+            return;
+        }
+        if(pyramid == null || pyramid.getDataModel() != data)
+        {
+            if(pyramid != null)
+                pyramid.dispose();
+            pyramid = new MinMaxPyramid(data);
+        }
+        pyramid.validate();
+        to = Math.min(to, pyramid.size());
+
+        out.clear();
+        final int top = pyramid.getTopLevel();
+        // blocks are aligned on sequence numbers rather than indices
+        final long origin = pyramid.getFirstSequence();
+        final double lower = domain.getLowerBound();
+        final double scale = pixels/extent;
+        int first = -1, last = -1, min = -1, max = -1;
+        double min_y = 0, max_y = 0;
+        int run_column = 0;
+        int i = from;
+        while(i < to)
+        {
+            final double x = data.getX(i);
+            final int column = MinMaxDownsampler.column(x, lower, scale, pixels);
+            // the largest aligned block starting at i that fits, split until
+            // it lies in one column and has no gap
+            final long sequence = origin + i;
+            int l = Double.isNaN(x)?-1:Math.min(top, Math.min(Long.numberOfTrailingZeros(sequence),
+                    31 - Integer.numberOfLeadingZeros(to - i)));
+            while(l >= MinMaxPyramid.BASE_LEVEL && (pyramid.getMinIndex(l, sequence >> l) == MinMaxPyramid.GAP
+                    || MinMaxDownsampler.column(data.getX(i + (1 << l) - 1), lower, scale, pixels) != column))
+                --l;
+            final int unit_first = i;
+            final int unit_min, unit_max;
+            if(l >= MinMaxPyramid.BASE_LEVEL)
+            {
+                unit_min = pyramid.getMinIndex(l, sequence >> l);
+                unit_max = pyramid.getMaxIndex(l, sequence >> l);
+                i += 1 << l;
+            }
+            else
+            {
+                final double y = data.getY(i);
+                if(Double.isNaN(x) || Double.isNaN(y))
+                {
+                    // a gap ends the run and is passed through, as by MinMaxDownsampler
+                    if(first >= 0)
+                        MinMaxDownsampler.flush(data, first, min, max, last, out);
+                    first = -1;
+                    out.add(x, y);
+                    ++i;
+                    continue;
+                }
+                unit_min = unit_max = i;
+                ++i;
+            }
+            final int unit_last = i - 1;
+            if(first >= 0 && column == run_column)
+            {
+                last = unit_last;
+                final double unit_min_y = data.getY(unit_min);
+                final double unit_max_y = data.getY(unit_max);
+                if(unit_min_y < min_y)
+                {
+                    min = unit_min;
+                    min_y = unit_min_y;
+                }
+                if(unit_max_y > max_y)
+                {
+                    max = unit_max;
+                    max_y = unit_max_y;
+                }
+            }
+            else
+            {
+                if(first >= 0)
+                    MinMaxDownsampler.flush(data, first, min, max, last, out);
+                first = unit_first;
+                last = unit_last;
+                min = unit_min;
+                max = unit_max;
+                min_y = data.getY(min);
+                max_y = data.getY(max);
+                run_column = column;
+            }
+        }
+        if(first >= 0)
+            MinMaxDownsampler.flush(data, first, min, max, last, out);
+    }
+}
@@ -0,0 +1,63 @@
+package SimpleCharts;
+
+import SimpleCharts.Chart.FrameStatistics;
+import SimpleCharts.Chart.RenderProbe;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+
+/**
+ * A debug overlay showing the (@link RenderProbe) measurements of the last
+ * frame in the top left corner of a chart. The overlay enables the probe when
+ * it is created; add it to a panel with
+ * {@link ChartPanel#addOverlay(ChartOverlay)}.
+ */
+public class RenderProbeOverlay implements ChartOverlay
+{
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color BACKGROUND = new Color(255, 255, 224, 208);
+    private static final int MARGIN = 4;
+
+    public RenderProbeOverlay()
+    {
+        RenderProbe.setEnabled(true);
+    }
+    @Override
+    public void paintOverlay(Graphics g, int width, int height)
+    {
+        final FrameStatistics frame = RenderProbe.getLastFrame();
+        if(frame == null)
+            return;
+        final String[] lines = new String[1 + RenderProbe.PHASES + RenderProbe.COUNTERS];
+        int n = 0;
+        lines[n++] = String.format("%-17s%8.2f ms", "frame", frame.getFrameTime()/1e6);
+        for(int i=0; i<RenderProbe.PHASES; ++i)
+            lines[n++] = String.format("%-17s%8.2f ms", RenderProbe.getPhaseName(i), frame.getPhaseTime(i)/1e6);
+        for(int i=0; i<RenderProbe.COUNTERS; ++i)
+            lines[n++] = String.format("%-17s%11d", RenderProbe.getCounterName(i), frame.getCount(i));
+
+        final Graphics g2 = g.create();
+        try
+        {
+            g2.setFont(FONT);
+            final FontMetrics fm = g2.getFontMetrics();
+            int text_width = 0;
+            for(String line : lines)
+                text_width = Math.max(text_width, fm.stringWidth(line));
+            g2.setColor(BACKGROUND);
+            g2.fillRect(MARGIN, MARGIN, text_width + 2*MARGIN, lines.length*fm.getHeight() + 2*MARGIN);
+            g2.setColor(Color.black);
+            int y = 2*MARGIN + fm.getAscent();
+            for(String line : lines)
+            {
+                g2.drawString(line, 2*MARGIN, y);
+                y += fm.getHeight();
+            }
+        }
+        finally
+        {
+            g2.dispose();
+        }
+    }
+}